@@ -23,15 +23,24 @@
  */
 package com.koenv.ormlite.processor;
 
-import com.google.common.base.Joiner;
+import com.j256.ormlite.dao.BaseDaoImpl;
 import com.j256.ormlite.dao.DaoManager;
-import com.j256.ormlite.db.DatabaseType;
-import com.j256.ormlite.db.SqliteAndroidDatabaseType;
 import com.j256.ormlite.field.DatabaseField;
 import com.j256.ormlite.field.DatabaseFieldConfig;
+import com.j256.ormlite.field.FieldType;
 import com.j256.ormlite.field.ForeignCollectionField;
+import com.j256.ormlite.field.SqlType;
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.logger.LoggerFactory;
+import com.j256.ormlite.misc.TransactionManager;
+import com.j256.ormlite.stmt.StatementBuilder;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseResults;
 import com.j256.ormlite.table.DatabaseTable;
 import com.j256.ormlite.table.DatabaseTableConfig;
+import com.j256.ormlite.table.TableUtils;
 import com.squareup.javapoet.*;
 
 import javax.annotation.processing.*;
@@ -40,11 +49,20 @@ import javax.lang.model.element.Element;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.j256.ormlite.field.DatabaseFieldConfig.DEFAULT_DATA_TYPE;
 
@@ -54,10 +72,24 @@ public class AnnotationProcessor extends AbstractProcessor {
     private Types typeUtils;
     private Filer filer;
     private Messager messager;
-
-    private static final DatabaseType databaseType = new SqliteAndroidDatabaseType();
-
-    private List<ClassName> generatedClasses;
+    private AsyncDaoGenerator asyncDaoGenerator;
+    private ChangeTrackerGenerator changeTrackerGenerator;
+    private FinderGenerator finderGenerator;
+    private ForeignCollectionGenerator foreignCollectionGenerator;
+    private ColumnsGenerator columnsGenerator;
+    private SearchGenerator searchGenerator;
+    private LazyGenerator lazyGenerator;
+    private MigrationGenerator migrationGenerator;
+    private PersisterGenerator persisterGenerator;
+
+    private static final String SCHEMA_TABLE_NAME = "ormlite_schema";
+    private static final String SCHEMA_PACKAGE = "com.koenv.ormlite.processor";
+    /**
+     * If this option is true, a missing snapshot of a previous schema version is an error instead of a warning.
+     */
+    private static final String REQUIRE_SNAPSHOTS_OPTION = "ormlite.requireSnapshots";
+
+    private List<TableBindings> generatedTables;
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
@@ -65,13 +97,33 @@ public class AnnotationProcessor extends AbstractProcessor {
         typeUtils = processingEnv.getTypeUtils();
         filer = processingEnv.getFiler();
         messager = processingEnv.getMessager();
+        changeTrackerGenerator = new ChangeTrackerGenerator(typeUtils);
+        finderGenerator = new FinderGenerator(typeUtils);
+        foreignCollectionGenerator = new ForeignCollectionGenerator(typeUtils);
+        columnsGenerator = new ColumnsGenerator(typeUtils);
+        searchGenerator = new SearchGenerator(messager);
+        lazyGenerator = new LazyGenerator(typeUtils, messager);
+        migrationGenerator = new MigrationGenerator();
+        persisterGenerator = new PersisterGenerator();
+        if (processingEnv.getElementUtils().getTypeElement(AsyncDaoGenerator.COMPLETABLE_FUTURE.toString()) != null) {
+            asyncDaoGenerator = new AsyncDaoGenerator(typeUtils);
+        }
     }
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
-        generatedClasses = new ArrayList<ClassName>();
+        generatedTables = new ArrayList<TableBindings>();
+
+        // the order of getElementsAnnotatedWith is not specified, so sort it to generate the same code on every build
+        List<Element> annotatedElements = new ArrayList<Element>(roundEnv.getElementsAnnotatedWith(DatabaseTable.class));
+        Collections.sort(annotatedElements, new Comparator<Element>() {
+            @Override
+            public int compare(Element lhs, Element rhs) {
+                return lhs.toString().compareTo(rhs.toString());
+            }
+        });
 
-        for (Element annotatedElement : roundEnv.getElementsAnnotatedWith(DatabaseTable.class)) {
+        for (Element annotatedElement : annotatedElements) {
             if (!annotatedElement.getKind().isClass()) {
                 error(annotatedElement, "Only classes can be annotated with %s", DatabaseTable.class.getSimpleName());
                 return false;
@@ -89,7 +141,7 @@ public class AnnotationProcessor extends AbstractProcessor {
                             if (!databaseField.persisted()) {
                                 continue;
                             }
-                            FieldBindings fieldConfig = FieldBindings.fromDatabaseField(databaseType, element, databaseField, typeUtils, messager);
+                            FieldBindings fieldConfig = FieldBindings.fromDatabaseField(element, databaseField, typeUtils, messager);
                             if (fieldConfig != null) {
                                 fieldConfigs.add(fieldConfig);
                             }
@@ -116,64 +168,513 @@ public class AnnotationProcessor extends AbstractProcessor {
                 );
                 return false;
             }
-            JavaFile javaFile = generateFile(typeElement, fieldConfigs, tableName);
+            TableBindings table = new TableBindings(typeElement, tableName, fieldConfigs);
+            if (!checkSqliteTable(table)) {
+                return false;
+            }
+            JavaFile javaFile = generateFile(table);
             try {
                 javaFile.writeTo(filer);
+                if (asyncDaoGenerator != null) {
+                    asyncDaoGenerator.generateAsyncDao(table).writeTo(filer);
+                }
+                JavaFile changeTracker = changeTrackerGenerator.generateChangeTracker(table);
+                if (changeTracker != null) {
+                    changeTracker.writeTo(filer);
+                }
+                JavaFile finders = finderGenerator.generateFinders(table);
+                if (finders != null) {
+                    finders.writeTo(filer);
+                }
+                JavaFile foreignCollections = foreignCollectionGenerator.generateForeignCollections(table);
+                if (foreignCollections != null) {
+                    foreignCollections.writeTo(filer);
+                }
+                JavaFile columns = columnsGenerator.generateColumns(table);
+                if (columns != null) {
+                    columns.writeTo(filer);
+                }
+                JavaFile search = searchGenerator.generateSearch(table);
+                if (search != null) {
+                    search.writeTo(filer);
+                }
+                JavaFile lazy = lazyGenerator.generateLazy(table);
+                if (lazy != null) {
+                    lazy.writeTo(filer);
+                }
+                JavaFile persisters = persisterGenerator.generatePersisters(table);
+                if (persisters != null) {
+                    persisters.writeTo(filer);
+                }
             } catch (IOException e) {
                 error(typeElement, "Code gen failed: " + e);
                 return false;
             }
         }
 
-        if (!generatedClasses.isEmpty()) {
+        if (!generatedTables.isEmpty()) {
             JavaFile javaFile = generateMainFile();
             try {
                 javaFile.writeTo(filer);
+                if (asyncDaoGenerator != null) {
+                    asyncDaoGenerator.generateAsync().writeTo(filer);
+                }
+                changeTrackerGenerator.generateChangeTracker().writeTo(filer);
+                finderGenerator.generateFinder().writeTo(filer);
+                foreignCollectionGenerator.generateForeignCollectionLoader().writeTo(filer);
+                searchGenerator.generateFullTextSearch().writeTo(filer);
+                lazyGenerator.generateLazyLoader().writeTo(filer);
+                persisterGenerator.generateDateStringFormat().writeTo(filer);
+                persisterGenerator.generateDateStringPersister().writeTo(filer);
             } catch (IOException e) {
                 messager.printMessage(Diagnostic.Kind.ERROR, "Code gen failed: failed to generate main class: " + e);
                 return false;
             }
+            Set<? extends Element> versionElements = roundEnv.getElementsAnnotatedWith(SchemaVersion.class);
+            if (versionElements.size() > 1) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Only one class can be annotated with " + SchemaVersion.class.getSimpleName());
+                return false;
+            }
+            if (!versionElements.isEmpty()) {
+                Element versionElement = versionElements.iterator().next();
+                int version = versionElement.getAnnotation(SchemaVersion.class).value();
+                if (version < 1) {
+                    error(versionElement, "The schema version must be at least 1");
+                    return false;
+                }
+                try {
+                    writeSnapshot(version, versionElement);
+                    migrationGenerator.generateMigrations(generatedTables, version, readSnapshots(version, versionElement)).writeTo(filer);
+                    migrationGenerator.generateSchemaMigration().writeTo(filer);
+                } catch (IOException e) {
+                    error(versionElement, "Code gen failed: failed to generate migrations: " + e);
+                    return false;
+                }
+            }
         }
 
         return false;
     }
 
+    /**
+     * Check the {@link SqliteTable} options of the table against its id field.
+     */
+    private boolean checkSqliteTable(TableBindings table) {
+        if (!table.isRowIdAlias() && !table.isWithoutRowId()) {
+            return true;
+        }
+        String name = SqliteTable.class.getSimpleName();
+        FieldBindings idField = table.getIdField();
+        if (table.isRowIdAlias() && table.isWithoutRowId()) {
+            error(table.getElement(), "A table without rowid can not have a rowid alias, set only one of rowIdAlias and withoutRowId of %s", name);
+            return false;
+        }
+        if (table.isRowIdAlias()) {
+            if (idField == null || idField.getGeneratedIdSequence() != null || !isIntegral(idField.getFieldType())) {
+                error(table.getElement(), "%s rowIdAlias requires an id or generatedId field of type long or int", name);
+                return false;
+            }
+            if (idField.getColumnDefinition() != null || idField.getDataType() != DEFAULT_DATA_TYPE) {
+                error(table.getElement(), "%s rowIdAlias declares the id field as INTEGER, remove the columnDefinition and dataType of field %s", name, idField.getFieldName());
+                return false;
+            }
+        }
+        if (table.isWithoutRowId()) {
+            if (idField == null || !idField.isId()) {
+                error(table.getElement(), "%s withoutRowId requires a field with id = true, generated ids are assigned from the rowid", name);
+                return false;
+            }
+            for (FieldBindings fieldConfig : table.getFieldConfigs()) {
+                if (fieldConfig.getSearchModule() != null) {
+                    error(table.getElement(), "%s withoutRowId can not be used with %s fields, the full-text search table refers to the rowid", name, Searchable.class.getSimpleName());
+                    return false;
+                }
+            }
+            if (isIntegral(idField.getFieldType())) {
+                messager.printMessage(Diagnostic.Kind.WARNING, String.format("An integer primary key is stored most efficiently as a rowid alias, use %s rowIdAlias instead of withoutRowId", name), table.getElement());
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIntegral(TypeMirror type) {
+        TypeName typeName = TypeName.get(type);
+        return typeName.equals(TypeName.LONG) || typeName.equals(TypeName.INT)
+                || typeName.equals(ClassName.get(Long.class)) || typeName.equals(ClassName.get(Integer.class));
+    }
+
+    private static String getSnapshotName(int version) {
+        return "schema/" + version + ".txt";
+    }
+
+    private void writeSnapshot(int version, Element versionElement) throws IOException {
+        List<Element> originatingElements = new ArrayList<Element>();
+        originatingElements.add(versionElement);
+        for (TableBindings table : generatedTables) {
+            originatingElements.add(table.getElement());
+        }
+        FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, SCHEMA_PACKAGE, getSnapshotName(version),
+                originatingElements.toArray(new Element[originatingElements.size()]));
+        Writer writer = file.openWriter();
+        try {
+            SchemaSnapshot.fromTables(generatedTables).write(writer, version);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Read the snapshots of all previous versions from the class path. The class output is not read, because a snapshot
+     * left there by a previous build would be missing from a clean build and change the generated migrations.
+     */
+    private Map<Integer, SchemaSnapshot> readSnapshots(int version, Element versionElement) throws IOException {
+        Diagnostic.Kind missingKind = Boolean.parseBoolean(processingEnv.getOptions().get(REQUIRE_SNAPSHOTS_OPTION))
+                ? Diagnostic.Kind.ERROR : Diagnostic.Kind.WARNING;
+        Map<Integer, SchemaSnapshot> snapshots = new TreeMap<Integer, SchemaSnapshot>();
+        for (int previousVersion = 1; previousVersion < version; previousVersion++) {
+            Reader reader;
+            try {
+                reader = filer.getResource(StandardLocation.CLASS_PATH, SCHEMA_PACKAGE, getSnapshotName(previousVersion)).openReader(true);
+            } catch (IOException e) {
+                messager.printMessage(missingKind, "There is no schema snapshot of version " + previousVersion + " on the class path, "
+                        + "so OrmLiteMigrations can not migrate from it", versionElement);
+                continue;
+            }
+            try {
+                snapshots.put(previousVersion, SchemaSnapshot.read(reader));
+            } finally {
+                reader.close();
+            }
+        }
+        return snapshots;
+    }
+
     private JavaFile generateMainFile() {
         ClassName className = ClassName.get("com.koenv.ormlite.processor", "OrmLiteProcessor");
 
         TypeSpec.Builder configBuilder = TypeSpec.classBuilder(className.simpleName())
                 .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
-                .addJavadoc("Generated on $L\n", new SimpleDateFormat("yyyy/MM/dd hh:mm:ss").format(new Date()));
+                .addJavadoc("Generated by the OrmLite annotation processor, do not edit\n");
+
+        for (TableBindings table : generatedTables) {
+            configBuilder.addOriginatingElement(table.getElement());
+        }
 
         ParameterizedTypeName databaseTableConfig = ParameterizedTypeName.get(ClassName.get(DatabaseTableConfig.class), WildcardTypeName.subtypeOf(Object.class));
 
-        ParameterizedTypeName collectionOfTableConfigs = ParameterizedTypeName.get(ClassName.get(Collection.class), databaseTableConfig);
-        ParameterizedTypeName listOfTableConfigs = ParameterizedTypeName.get(ClassName.get(ArrayList.class), databaseTableConfig);
+        ParameterizedTypeName listOfTableConfigs = ParameterizedTypeName.get(ClassName.get(List.class), databaseTableConfig);
+        ParameterizedTypeName arrayListOfTableConfigs = ParameterizedTypeName.get(ClassName.get(ArrayList.class), databaseTableConfig);
 
-        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("init")
+        MethodSpec.Builder tableConfigsBuilder = MethodSpec.methodBuilder("getTableConfigs")
                 .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
-                .returns(TypeName.VOID)
-                .addJavadoc("Call this method when initializing your application\n")
-                .addStatement("$T configs = new $T()", collectionOfTableConfigs, listOfTableConfigs);
+                .returns(listOfTableConfigs)
+                .addJavadoc("Returns a new list with the configurations of all tables\n")
+                .addStatement("$T configs = new $T()", listOfTableConfigs, arrayListOfTableConfigs);
 
-        for (ClassName tableConfig : generatedClasses) {
-            methodBuilder.addStatement("configs.add($T.getTableConfig())", tableConfig);
+        for (TableBindings table : generatedTables) {
+            tableConfigsBuilder.addStatement("configs.add($T.getTableConfig())", table.getConfigName());
         }
 
-        methodBuilder.addStatement("$T.addCachedDatabaseConfigs(configs)", DaoManager.class);
+        MethodSpec tableConfigsMethod = tableConfigsBuilder.addStatement("return configs").build();
+        configBuilder.addMethod(tableConfigsMethod);
+
+        configBuilder.addMethod(MethodSpec.methodBuilder("init")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(TypeName.VOID)
+                .addJavadoc("Call this method when initializing your application\n")
+                .addStatement("$T.addCachedDatabaseConfigs($N())", DaoManager.class, tableConfigsMethod)
+                .build());
+
+        MethodSpec connectionTableConfigsMethod = MethodSpec.methodBuilder("getTableConfigs")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(listOfTableConfigs)
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addStatement("$T configs = $N()", listOfTableConfigs, tableConfigsMethod)
+                .beginControlFlow("if (connectionSource.getDatabaseType().isEntityNamesMustBeUpCase())")
+                .beginControlFlow("for ($T config : configs)", databaseTableConfig)
+                .addStatement("config.setTableName(config.getTableName().toUpperCase())")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return configs")
+                .build();
+        configBuilder.addMethod(connectionTableConfigsMethod);
+
+        configBuilder.addMethod(MethodSpec.methodBuilder("init")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(TypeName.VOID)
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addJavadoc("Call this method when initializing your application if the database type of the connection source\n"
+                        + "requires upper case entity names, such as H2 or Derby. This works for every database type.\n")
+                .addStatement("$T.addCachedDatabaseConfigs($N(connectionSource))", DaoManager.class, connectionTableConfigsMethod)
+                .build());
 
-        configBuilder.addMethod(methodBuilder.build());
+        addSchemaHashMethods(configBuilder);
+        addWarmUpMethods(configBuilder, className, connectionTableConfigsMethod);
 
         return JavaFile.builder(className.packageName(), configBuilder.build()).build();
     }
 
-    private JavaFile generateFile(TypeElement element, List<FieldBindings> fieldConfigs, String tableName) {
-        ClassName className = ClassName.get(element);
-        ClassName configName = ClassName.get(className.packageName(), Joiner.on('$').join(className.simpleNames()) + "$$Configuration");
+    private void addSchemaHashMethods(TypeSpec.Builder configBuilder) {
+        configBuilder.addField(FieldSpec.builder(TypeName.LONG, "SCHEMA_HASH", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("Hash of the schema of all tables at compile-time\n")
+                .initializer("$LL", TableBindings.getSchemaHash(generatedTables))
+                .build());
+
+        MethodSpec isSchemaHashStored = MethodSpec.methodBuilder("isSchemaHashStored")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(TypeName.BOOLEAN)
+                .addParameter(DatabaseConnection.class, "connection")
+                .addParameter(String.class, "name")
+                .addParameter(TypeName.LONG, "hash")
+                .addException(SQLException.class)
+                .addStatement("$T statement = connection.compileStatement($S, $T.SELECT_LONG, new $T[0], $T.DEFAULT_RESULT_FLAGS)",
+                        CompiledStatement.class, "SELECT COUNT(*) FROM " + SCHEMA_TABLE_NAME + " WHERE name = ? AND hash = ?",
+                        StatementBuilder.StatementType.class, FieldType.class, DatabaseConnection.class)
+                .beginControlFlow("try")
+                .addStatement("statement.setObject(0, name, $T.STRING)", SqlType.class)
+                .addStatement("statement.setObject(1, hash, $T.LONG)", SqlType.class)
+                .addStatement("$T results = statement.runQuery(null)", DatabaseResults.class)
+                .addStatement("return results.first() && results.getLong(0) > 0")
+                .nextControlFlow("finally")
+                .addStatement("statement.close()")
+                .endControlFlow()
+                .build();
+        configBuilder.addMethod(isSchemaHashStored);
+
+        MethodSpec storeSchemaHash = MethodSpec.methodBuilder("storeSchemaHash")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(DatabaseConnection.class, "connection")
+                .addParameter(String.class, "name")
+                .addParameter(TypeName.LONG, "hash")
+                .addException(SQLException.class)
+                .addStatement("$T statement = connection.compileStatement($S, $T.UPDATE, new $T[0], $T.DEFAULT_RESULT_FLAGS)",
+                        CompiledStatement.class, "INSERT INTO " + SCHEMA_TABLE_NAME + " (name, hash) VALUES (?, ?)",
+                        StatementBuilder.StatementType.class, FieldType.class, DatabaseConnection.class)
+                .beginControlFlow("try")
+                .addStatement("statement.setObject(0, name, $T.STRING)", SqlType.class)
+                .addStatement("statement.setObject(1, hash, $T.LONG)", SqlType.class)
+                .addStatement("statement.runUpdate()")
+                .nextControlFlow("finally")
+                .addStatement("statement.close()")
+                .endControlFlow()
+                .build();
+        configBuilder.addMethod(storeSchemaHash);
+
+        configBuilder.addMethod(MethodSpec.methodBuilder("isSchemaCurrent")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(TypeName.BOOLEAN)
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addException(SQLException.class)
+                .addJavadoc("Returns whether the schema hash stored by {@link #markSchemaCurrent} matches {@link #SCHEMA_HASH}.\n"
+                        + "If it does, creating tables and checking columns can be skipped.\n")
+                .addStatement("$T connection = connectionSource.getReadOnlyConnection()", DatabaseConnection.class)
+                .beginControlFlow("try")
+                .addStatement("return connection.isTableExists($S) && $N(connection, $S, SCHEMA_HASH)", SCHEMA_TABLE_NAME, isSchemaHashStored, "*")
+                .nextControlFlow("finally")
+                .addStatement("connectionSource.releaseConnection(connection)")
+                .endControlFlow()
+                .build());
+
+        TypeName listOfClasses = ParameterizedTypeName.get(ClassName.get(List.class), ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)));
+        TypeName arrayListOfClasses = ParameterizedTypeName.get(ClassName.get(ArrayList.class), ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)));
+
+        MethodSpec.Builder changedTablesBuilder = MethodSpec.methodBuilder("getChangedTables")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(listOfClasses)
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addException(SQLException.class)
+                .addJavadoc("Returns the classes whose table schema differs from the one stored by {@link #markSchemaCurrent}.\n")
+                .addStatement("$T changed = new $T()", listOfClasses, arrayListOfClasses)
+                .addStatement("$T connection = connectionSource.getReadOnlyConnection()", DatabaseConnection.class)
+                .beginControlFlow("try")
+                .addStatement("boolean exists = connection.isTableExists($S)", SCHEMA_TABLE_NAME);
+        for (TableBindings table : generatedTables) {
+            changedTablesBuilder.beginControlFlow("if (!exists || !$N(connection, $S, $T.SCHEMA_HASH))", isSchemaHashStored, table.getTableName(), table.getConfigName())
+                    .addStatement("changed.add($T.class)", table.getClassName())
+                    .endControlFlow();
+        }
+        changedTablesBuilder.nextControlFlow("finally")
+                .addStatement("connectionSource.releaseConnection(connection)")
+                .endControlFlow()
+                .addStatement("return changed");
+        configBuilder.addMethod(changedTablesBuilder.build());
+
+        MethodSpec.Builder callBuilder = MethodSpec.methodBuilder("call")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(Void.class)
+                .addException(SQLException.class)
+                .addStatement("connection.executeStatement($S, $T.DEFAULT_RESULT_FLAGS)",
+                        "CREATE TABLE IF NOT EXISTS " + SCHEMA_TABLE_NAME + " (name VARCHAR(255) PRIMARY KEY, hash BIGINT NOT NULL)", DatabaseConnection.class)
+                .addStatement("connection.executeStatement($S, $T.DEFAULT_RESULT_FLAGS)", "DELETE FROM " + SCHEMA_TABLE_NAME, DatabaseConnection.class)
+                .addStatement("$N(connection, $S, SCHEMA_HASH)", storeSchemaHash, "*");
+        for (TableBindings table : generatedTables) {
+            callBuilder.addStatement("$N(connection, $S, $T.SCHEMA_HASH)", storeSchemaHash, table.getTableName(), table.getConfigName());
+        }
+        callBuilder.addStatement("return null");
+
+        MethodSpec.Builder markBuilder = MethodSpec.methodBuilder("markSchemaCurrent")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addException(SQLException.class)
+                .addJavadoc("Stores the schema hashes in the database. Call this after the schema has been created or upgraded.\n")
+                .addStatement("final $T connection = connectionSource.getReadWriteConnection()", DatabaseConnection.class)
+                .beginControlFlow("try")
+                .addCode("// replace the hashes in one transaction, a partial set would mark every table as changed\n")
+                .addStatement("$T.callInTransaction(connection, connectionSource.getDatabaseType(), $L)", TransactionManager.class,
+                        TypeSpec.anonymousClassBuilder("")
+                                .superclass(ParameterizedTypeName.get(Callable.class, Void.class))
+                                .addMethod(callBuilder.build())
+                                .build())
+                .nextControlFlow("finally")
+                .addStatement("connectionSource.releaseConnection(connection)")
+                .endControlFlow();
+        configBuilder.addMethod(markBuilder.build());
+    }
+
+    private void addWarmUpMethods(TypeSpec.Builder configBuilder, ClassName className, MethodSpec tableConfigsMethod) {
+        ParameterizedTypeName databaseTableConfig = ParameterizedTypeName.get(ClassName.get(DatabaseTableConfig.class), WildcardTypeName.subtypeOf(Object.class));
+        ParameterizedTypeName listOfTableConfigs = ParameterizedTypeName.get(ClassName.get(List.class), databaseTableConfig);
+        ParameterizedTypeName listOfLevels = ParameterizedTypeName.get(ClassName.get(List.class), listOfTableConfigs);
+        TypeVariableName t = TypeVariableName.get("T");
+
+        int[] levels = TableBindings.getForeignLevels(generatedTables, typeUtils);
+        StringBuilder levelsInitializer = new StringBuilder("{");
+        for (int i = 0; i < levels.length; i++) {
+            levelsInitializer.append(i == 0 ? "" : ", ").append(levels[i]);
+        }
+        configBuilder.addField(FieldSpec.builder(int[].class, "TABLE_LEVELS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("The level of every table of {@link #getTableConfigs()}: a table only has foreign fields to tables with a\n"
+                        + "lower level.\n")
+                .initializer(levelsInitializer.append('}').toString())
+                .build());
+
+        MethodSpec.Builder createDaoBuilder = MethodSpec.methodBuilder("createDao")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addTypeVariable(t)
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(DatabaseTableConfig.class), t), "config")
+                .addException(SQLException.class)
+                .beginControlFlow("if ($T.lookupDao(connectionSource, config.getDataClass()) != null)", DaoManager.class)
+                .addStatement("return")
+                .endControlFlow();
+        for (TableBindings table : generatedTables) {
+            if (table.hasCustomDao()) {
+                createDaoBuilder.beginControlFlow("if (config.getDataClass() == $T.class)", table.getClassName())
+                        .addStatement("$T.createDao(connectionSource, config.getDataClass())", DaoManager.class)
+                        .addStatement("return")
+                        .endControlFlow();
+            }
+        }
+        MethodSpec createDaoMethod = createDaoBuilder
+                .addCode("// the DaoManager is locked while it creates a DAO, so create it here and only register it\n")
+                .addStatement("$T dao = $L", ParameterizedTypeName.get(ClassName.get(BaseDaoImpl.class), t, ClassName.get(Object.class)),
+                        TypeSpec.anonymousClassBuilder("connectionSource, config")
+                                .superclass(ParameterizedTypeName.get(ClassName.get(BaseDaoImpl.class), t, ClassName.get(Object.class)))
+                                .build())
+                .addStatement("$T.registerDao(connectionSource, dao)", DaoManager.class)
+                .build();
+        configBuilder.addMethod(createDaoMethod);
+
+        configBuilder.addField(FieldSpec.builder(Logger.class, "logger", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.getLogger($T.class)", LoggerFactory.class, className)
+                .build());
+
+        MethodSpec warmUpLevelMethod = MethodSpec.methodBuilder("warmUpLevel")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(ConnectionSource.class, "connectionSource", Modifier.FINAL)
+                .addParameter(Executor.class, "executor", Modifier.FINAL)
+                .addParameter(listOfLevels, "levels", Modifier.FINAL)
+                .addParameter(TypeName.INT, "level", Modifier.FINAL)
+                .addParameter(CountDownLatch.class, "latch", Modifier.FINAL)
+                .beginControlFlow("if (level == levels.size())")
+                .addStatement("return")
+                .endControlFlow()
+                .addStatement("$T configs = levels.get(level)", listOfTableConfigs)
+                .addStatement("final $T remaining = new $T(configs.size())", AtomicInteger.class, AtomicInteger.class)
+                .beginControlFlow("for (int i = 0; i < configs.size(); i++)")
+                .addStatement("final $T config = configs.get(i)", databaseTableConfig)
+                .beginControlFlow("try")
+                .addStatement("executor.execute($L)", TypeSpec.anonymousClassBuilder("")
+                        .superclass(Runnable.class)
+                        .addMethod(MethodSpec.methodBuilder("run")
+                                .addAnnotation(Override.class)
+                                .addModifiers(Modifier.PUBLIC)
+                                .beginControlFlow("try")
+                                .addStatement("$N(connectionSource, config)", createDaoMethod)
+                                .addCode("$<} catch ($T e) {\n$>", SQLException.class)
+                                .addStatement("logger.warn(e, $S, config.getDataClass())", "Could not warm up the DAO of {}, it is created again on first use")
+                                .nextControlFlow("finally")
+                                .addStatement("latch.countDown()")
+                                .beginControlFlow("if (remaining.decrementAndGet() == 0)")
+                                .addStatement("warmUpLevel(connectionSource, executor, levels, level + 1, latch)")
+                                .endControlFlow()
+                                .endControlFlow()
+                                .build())
+                        .build())
+                .addCode("$<} catch ($T e) {\n$>", RuntimeException.class)
+                .addStatement("logger.warn(e, $S, configs.size() - i, level)", "Could not warm up the DAOs of {} tables of level {}")
+                .addCode("// the tables which were not scheduled are done, so the latch still reaches zero\n")
+                .beginControlFlow("for (int j = i; j < configs.size(); j++)")
+                .addStatement("latch.countDown()")
+                .endControlFlow()
+                .beginControlFlow("if (remaining.addAndGet(i - configs.size()) == 0)")
+                .addStatement("warmUpLevel(connectionSource, executor, levels, level + 1, latch)")
+                .endControlFlow()
+                .addStatement("return")
+                .endControlFlow()
+                .endControlFlow()
+                .build();
+        configBuilder.addMethod(warmUpLevelMethod);
+
+        configBuilder.addMethod(MethodSpec.methodBuilder("warmUp")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(CountDownLatch.class)
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(Executor.class, "executor")
+                .addParameter(ArrayTypeName.of(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class))), "tables")
+                .varargs()
+                .addJavadoc("Creates the DAOs of the given tables, or of all tables if none are given, on the executor. The DAOs are\n"
+                        + "created in parallel, level by level, so the DAOs of foreign fields are already cached when the DAO\n"
+                        + "referring to them is created. Call {@link #init(ConnectionSource)} first.\n"
+                        + "\n"
+                        + "@return a latch which reaches zero when all DAOs have been created\n")
+                .addStatement("$T selected = $T.asList(tables)", ParameterizedTypeName.get(ClassName.get(List.class), ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class))), Arrays.class)
+                .addStatement("$T configs = $N(connectionSource)", listOfTableConfigs, tableConfigsMethod)
+                .addStatement("$T levels = new $T()", listOfLevels, ParameterizedTypeName.get(ClassName.get(ArrayList.class), listOfTableConfigs))
+                .addStatement("int count = 0")
+                .beginControlFlow("for (int i = 0; i < configs.size(); i++)")
+                .beginControlFlow("if (tables.length == 0 || selected.contains(configs.get(i).getDataClass()))")
+                .beginControlFlow("while (levels.size() <= TABLE_LEVELS[i])")
+                .addStatement("levels.add(new $T())", ParameterizedTypeName.get(ClassName.get(ArrayList.class), databaseTableConfig))
+                .endControlFlow()
+                .addStatement("levels.get(TABLE_LEVELS[i]).add(configs.get(i))")
+                .addStatement("count++")
+                .endControlFlow()
+                .endControlFlow()
+                .addCode("// a level without tables would never start the next one\n")
+                .addStatement("levels.removeAll($T.singleton($T.emptyList()))", Collections.class, Collections.class)
+                .addStatement("$T latch = new $T(count)", CountDownLatch.class, CountDownLatch.class)
+                .addStatement("$N(connectionSource, executor, levels, 0, latch)", warmUpLevelMethod)
+                .addStatement("return latch")
+                .build());
+    }
+
+    private JavaFile generateFile(TableBindings table) {
+        TypeElement element = table.getElement();
+        String tableName = table.getTableName();
+        List<FieldBindings> fieldConfigs = table.getFieldConfigs();
+        ClassName configName = table.getConfigName();
 
         TypeSpec.Builder configBuilder = TypeSpec.classBuilder(configName.simpleName())
                 .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
-                .addJavadoc("Generated on $L\n", new SimpleDateFormat("yyyy/MM/dd hh:mm:ss").format(new Date()));
+                .addOriginatingElement(element)
+                .addJavadoc("Generated by the OrmLite annotation processor, do not edit\n");
+
+        configBuilder.addField(FieldSpec.builder(TypeName.LONG, "SCHEMA_HASH", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("Hash of the schema of this table at compile-time\n")
+                .initializer("$LL", table.getSchemaHash())
+                .build());
 
         TypeName databaseTableConfig = ParameterizedTypeName.get(ClassName.get(DatabaseTableConfig.class), ClassName.get(element));
 
@@ -196,7 +697,7 @@ public class AnnotationProcessor extends AbstractProcessor {
         fieldConfigsMethodBuilder.addStatement("$T config = null", DatabaseFieldConfig.class);
 
         for (FieldBindings config : fieldConfigs) {
-            fieldConfigsMethodBuilder.addCode(getFieldConfig(config, tableName));
+            fieldConfigsMethodBuilder.addCode(getFieldConfig(config, table));
             fieldConfigsMethodBuilder.addStatement("list.add(config)");
         }
 
@@ -209,14 +710,39 @@ public class AnnotationProcessor extends AbstractProcessor {
         tableConfigMethodBuilder.addStatement("config.setFieldConfigs($N())", fieldConfigsMethod);
         tableConfigMethodBuilder.addStatement("return config");
 
-        configBuilder.addMethod(tableConfigMethodBuilder.build());
-
-        generatedClasses.add(configName);
+        MethodSpec tableConfigMethod = tableConfigMethodBuilder.build();
+        configBuilder.addMethod(tableConfigMethod);
+
+        if (table.isWithoutRowId()) {
+            configBuilder.addMethod(MethodSpec.methodBuilder("createTable")
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .addParameter(ConnectionSource.class, "connectionSource")
+                    .addException(SQLException.class)
+                    .addJavadoc("Creates the table WITHOUT ROWID and its indexes. Use this instead of {@link $T#createTable}, which\n"
+                            + "creates the table with a rowid.\n", TableUtils.class)
+                    .addStatement("$T statements = $T.getCreateTableStatements(connectionSource, $N())",
+                            ParameterizedTypeName.get(List.class, String.class), TableUtils.class, tableConfigMethod)
+                    .addStatement("$T connection = connectionSource.getReadWriteConnection()", DatabaseConnection.class)
+                    .beginControlFlow("try")
+                    .beginControlFlow("for (String statement : statements)")
+                    .beginControlFlow("if (statement.startsWith($S))", "CREATE TABLE ")
+                    .addStatement("statement += $S", " WITHOUT ROWID")
+                    .endControlFlow()
+                    .addStatement("connection.executeStatement(statement, $T.DEFAULT_RESULT_FLAGS)", DatabaseConnection.class)
+                    .endControlFlow()
+                    .nextControlFlow("finally")
+                    .addStatement("connectionSource.releaseConnection(connection)")
+                    .endControlFlow()
+                    .build());
+        }
+
+        generatedTables.add(table);
 
         return JavaFile.builder(configName.packageName(), configBuilder.build()).build();
     }
 
-    private CodeBlock getFieldConfig(FieldBindings config, String tableName) {
+    private CodeBlock getFieldConfig(FieldBindings config, TableBindings table) {
+        String tableName = table.getTableName();
         CodeBlock.Builder builder = CodeBlock.builder()
                 .addStatement("config = new $T()", DatabaseFieldConfig.class);
         if (config.getFieldName() != null) {
@@ -283,14 +809,20 @@ public class AnnotationProcessor extends AbstractProcessor {
         if (config.getMaxForeignAutoRefreshLevel() != DatabaseField.NO_MAX_FOREIGN_AUTO_REFRESH_LEVEL_SPECIFIED) {
             builder.addStatement("config.setMaxForeignAutoRefreshLevel($L)", config.getMaxForeignAutoRefreshLevel());
         }
-        if (!config.getPersisterClass().getQualifiedName().toString().equals("com.j256.ormlite.field.types.VoidType")) {
+        if (config.getPersisterClass() != null && !config.getPersisterClass().getQualifiedName().toString().equals("com.j256.ormlite.field.types.VoidType")) {
             builder.addStatement("config.setPersisterClass($T.class)", config.getPersisterClass());
         }
+        ClassName persisterName = persisterGenerator.getPersisterName(table, config);
+        if (persisterName != null) {
+            // OrmLite ignores the persister class of a field with a data type
+            builder.addStatement("config.setDataPersister($T.getSingleton())", persisterName);
+        }
         if (config.isAllowGeneratedIdInsert()) {
             builder.addStatement("config.setAllowGeneratedIdInsert($L)", config.isAllowGeneratedIdInsert());
         }
-        if (config.getColumnDefinition() != null) {
-            builder.addStatement("config.setColumnDefinition($S)", config.getColumnDefinition());
+        String columnDefinition = table.getColumnDefinition(config);
+        if (columnDefinition != null) {
+            builder.addStatement("config.setColumnDefinition($S)", columnDefinition);
         }
         if (config.isForeignAutoCreate()) {
             builder.addStatement("config.setForeignAutoCreate($L)", config.isForeignAutoCreate());
@@ -338,9 +870,15 @@ public class AnnotationProcessor extends AbstractProcessor {
     public Set<String> getSupportedAnnotationTypes() {
         Set<String> annotations = new LinkedHashSet<String>();
         annotations.add(DatabaseTable.class.getCanonicalName());
+        annotations.add(SchemaVersion.class.getCanonicalName());
         return annotations;
     }
 
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(REQUIRE_SNAPSHOTS_OPTION);
+    }
+
     @Override
     public SourceVersion getSupportedSourceVersion() {
         return SourceVersion.latestSupported();
@@ -0,0 +1,315 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Koen Vlaswinkel
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.stmt.PreparedQuery;
+import com.j256.ormlite.support.ConnectionSource;
+import com.squareup.javapoet.*;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.util.Types;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Generates the $$AsyncDao facades and the OrmLiteAsync class they run on. These use CompletableFuture, so they are
+ * only generated when it is available.
+ */
+public class AsyncDaoGenerator {
+    public static final ClassName COMPLETABLE_FUTURE = ClassName.get("java.util.concurrent", "CompletableFuture");
+    public static final ClassName ASYNC = ClassName.get("com.koenv.ormlite.processor", "OrmLiteAsync");
+
+    private static final TypeVariableName R = TypeVariableName.get("R");
+
+    private final Types typeUtils;
+
+    public AsyncDaoGenerator(Types typeUtils) {
+        this.typeUtils = typeUtils;
+    }
+
+    public JavaFile generateAsync() {
+        TypeName callableOfR = ParameterizedTypeName.get(ClassName.get(Callable.class), R);
+        TypeName futureOfR = ParameterizedTypeName.get(COMPLETABLE_FUTURE, R);
+
+        ClassName boundedExecutorName = ASYNC.nestedClass("BoundedExecutor");
+        ClassName callName = ASYNC.nestedClass("Call");
+        TypeName wildcardCall = ParameterizedTypeName.get(callName, WildcardTypeName.subtypeOf(Object.class));
+        TypeSpec call = TypeSpec.classBuilder(callName.simpleName())
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addTypeVariable(R)
+                .addSuperinterface(Runnable.class)
+                .addJavadoc("A callable and the future it completes, also when it is rejected.\n")
+                .addField(callableOfR, "callable", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(FieldSpec.builder(futureOfR, "future", Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T()", futureOfR)
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addParameter(callableOfR, "callable")
+                        .addStatement("this.callable = callable")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("run")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .beginControlFlow("try")
+                        .addStatement("future.complete(callable.call())")
+                        .addCode("$<} catch ($T t) {\n$>", Throwable.class)
+                        .addStatement("future.completeExceptionally(t)")
+                        .endControlFlow()
+                        .build())
+                .build();
+
+        MethodSpec poll = MethodSpec.methodBuilder("poll")
+                .addModifiers(Modifier.PRIVATE, Modifier.SYNCHRONIZED)
+                .returns(wildcardCall)
+                .addJavadoc("Returns the next queued call, or null if there is none and the slot of the caller is free again.\n")
+                .addStatement("$T next = queue.poll()", wildcardCall)
+                .beginControlFlow("if (next == null)")
+                .addStatement("running--")
+                .endControlFlow()
+                .addStatement("return next")
+                .build();
+
+        TypeSpec boundedExecutor = TypeSpec.classBuilder(boundedExecutorName.simpleName())
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("Runs at most maxConcurrency calls at the same time on the delegate, in submission order.\n")
+                .addField(Executor.class, "delegate", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(TypeName.INT, "maxConcurrency", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(Queue.class), wildcardCall), "queue", Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T()", ParameterizedTypeName.get(ClassName.get(ArrayDeque.class), wildcardCall))
+                        .build())
+                .addField(TypeName.INT, "running", Modifier.PRIVATE)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addParameter(Executor.class, "delegate")
+                        .addParameter(TypeName.INT, "maxConcurrency")
+                        .addStatement("this.delegate = delegate")
+                        .addStatement("this.maxConcurrency = maxConcurrency")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("execute")
+                        .addParameter(wildcardCall, "call")
+                        .beginControlFlow("synchronized (this)")
+                        .beginControlFlow("if (running >= maxConcurrency)")
+                        .addStatement("queue.add(call)")
+                        .addStatement("return")
+                        .endControlFlow()
+                        .addStatement("running++")
+                        .endControlFlow()
+                        .addStatement("dispatch(call)")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("dispatch")
+                        .addModifiers(Modifier.PRIVATE)
+                        .addJavadoc("Runs the call on the delegate. A call the delegate rejects or fails to accept fails itself and the next queued\n"
+                                + "call takes its slot, otherwise the slot would never be freed.\n")
+                        .addParameter(wildcardCall, "call")
+                        .beginControlFlow("while (call != null)")
+                        .addStatement("final $T current = call", wildcardCall)
+                        .beginControlFlow("try")
+                        .addStatement("delegate.execute($L)", TypeSpec.anonymousClassBuilder("")
+                                .addSuperinterface(Runnable.class)
+                                .addMethod(MethodSpec.methodBuilder("run")
+                                        .addAnnotation(Override.class)
+                                        .addModifiers(Modifier.PUBLIC)
+                                        .beginControlFlow("try")
+                                        .addStatement("current.run()")
+                                        .nextControlFlow("finally")
+                                        .addStatement("dispatch($N())", poll)
+                                        .endControlFlow()
+                                        .build())
+                                .build())
+                        .addStatement("return")
+                        .addCode("$<} catch ($T e) {\n$>", RuntimeException.class)
+                        .addStatement("current.future.completeExceptionally(e)")
+                        .endControlFlow()
+                        .addStatement("call = $N()", poll)
+                        .endControlFlow()
+                        .build())
+                .addMethod(poll)
+                .build();
+
+        TypeSpec.Builder asyncBuilder = TypeSpec.classBuilder(ASYNC.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addJavadoc("Runs DAO calls in the background. Reads run in parallel, but at most maxReads at the same time, while\n"
+                        + "writes are serialized per connection source.\n")
+                .addField(Executor.class, "executor", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(boundedExecutorName, "readExecutor", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(ConnectionSource.class), boundedExecutorName), "writeExecutors", Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T()", ParameterizedTypeName.get(ClassName.get(IdentityHashMap.class), ClassName.get(ConnectionSource.class), boundedExecutorName))
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PUBLIC)
+                        .addJavadoc("@param executor the executor the calls run on, for example a fixed thread pool or\n"
+                                + "{@code Executors.newVirtualThreadPerTaskExecutor()} on JDK 21+\n"
+                                + "@param maxReads the maximum number of reads running at the same time\n")
+                        .addParameter(Executor.class, "executor")
+                        .addParameter(TypeName.INT, "maxReads")
+                        .beginControlFlow("if (maxReads < 1)")
+                        .addStatement("throw new $T($S + maxReads)", IllegalArgumentException.class, "maxReads must be at least 1, was ")
+                        .endControlFlow()
+                        .addStatement("this.executor = executor")
+                        .addStatement("this.readExecutor = new $N(executor, maxReads)", boundedExecutor)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("read")
+                        .addModifiers(Modifier.PUBLIC)
+                        .addTypeVariable(R)
+                        .returns(futureOfR)
+                        .addParameter(callableOfR, "callable")
+                        .addStatement("return submit(readExecutor, callable)")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("write")
+                        .addModifiers(Modifier.PUBLIC)
+                        .addTypeVariable(R)
+                        .returns(futureOfR)
+                        .addParameter(ConnectionSource.class, "connectionSource")
+                        .addParameter(callableOfR, "callable")
+                        .addStatement("return submit(getWriteExecutor(connectionSource), callable)")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("getWriteExecutor")
+                        .addModifiers(Modifier.PRIVATE, Modifier.SYNCHRONIZED)
+                        .returns(boundedExecutorName)
+                        .addParameter(ConnectionSource.class, "connectionSource")
+                        .addStatement("$T writeExecutor = writeExecutors.get(connectionSource)", boundedExecutorName)
+                        .beginControlFlow("if (writeExecutor == null)")
+                        .addStatement("writeExecutor = new $N(executor, 1)", boundedExecutor)
+                        .addStatement("writeExecutors.put(connectionSource, writeExecutor)")
+                        .endControlFlow()
+                        .addStatement("return writeExecutor")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("submit")
+                        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                        .addTypeVariable(R)
+                        .returns(futureOfR)
+                        .addParameter(boundedExecutorName, "executor")
+                        .addParameter(callableOfR, "callable")
+                        .addStatement("$T call = new $T(callable)", ParameterizedTypeName.get(callName, R), ParameterizedTypeName.get(callName, R))
+                        .addStatement("executor.execute(call)")
+                        .addStatement("return call.future")
+                        .build())
+                .addType(call)
+                .addType(boundedExecutor);
+
+        return JavaFile.builder(ASYNC.packageName(), asyncBuilder.build()).build();
+    }
+
+    public JavaFile generateAsyncDao(TableBindings table) {
+        ClassName className = table.getClassName();
+        ClassName asyncDaoName = table.getAsyncDaoName();
+        FieldBindings idField = table.getIdField();
+        TypeName idType = idField == null ? WildcardTypeName.subtypeOf(Object.class) : table.getIdTypeName(typeUtils);
+        TypeName daoType = ParameterizedTypeName.get(ClassName.get(Dao.class), className, idType);
+        TypeName preparedQuery = ParameterizedTypeName.get(ClassName.get(PreparedQuery.class), className);
+        TypeName listOfT = ParameterizedTypeName.get(ClassName.get(List.class), className);
+        TypeName collectionOfT = ParameterizedTypeName.get(ClassName.get(Collection.class), className);
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(asyncDaoName.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addOriginatingElement(table.getElement())
+                .addJavadoc("Runs the calls of a {@link $T} for {@link $T} on an {@link $T}\n", Dao.class, className, ASYNC)
+                .addField(daoType, "dao", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(ASYNC, "async", Modifier.PRIVATE, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(daoType, "dao")
+                        .addParameter(ASYNC, "async")
+                        .addStatement("this.dao = dao")
+                        .addStatement("this.async = async")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("getDao")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(daoType)
+                        .addStatement("return dao")
+                        .build());
+
+        if (idField != null) {
+            builder.addMethod(call("queryForId", className, false, ParameterSpec.builder(idType, "id", Modifier.FINAL).build()));
+        }
+        builder.addMethod(call("queryForAll", listOfT, false));
+        builder.addMethod(call("queryForEq", listOfT, false,
+                ParameterSpec.builder(String.class, "fieldName", Modifier.FINAL).build(),
+                ParameterSpec.builder(Object.class, "value", Modifier.FINAL).build()));
+        builder.addMethod(call("query", listOfT, false, ParameterSpec.builder(preparedQuery, "preparedQuery", Modifier.FINAL).build()));
+        builder.addMethod(call("queryForFirst", className, false, ParameterSpec.builder(preparedQuery, "preparedQuery", Modifier.FINAL).build()));
+        builder.addMethod(call("countOf", ClassName.get(Long.class), false));
+        if (idField != null) {
+            builder.addMethod(call("idExists", ClassName.get(Boolean.class), false, ParameterSpec.builder(idType, "id", Modifier.FINAL).build()));
+            builder.addMethod(call("refresh", ClassName.get(Integer.class), false, ParameterSpec.builder(className, "data", Modifier.FINAL).build()));
+        }
+
+        builder.addMethod(call("create", ClassName.get(Integer.class), true, ParameterSpec.builder(className, "data", Modifier.FINAL).build()));
+        if (idField != null) {
+            builder.addMethod(call("createIfNotExists", className, true, ParameterSpec.builder(className, "data", Modifier.FINAL).build()));
+            builder.addMethod(call("createOrUpdate", ClassName.get(Dao.CreateOrUpdateStatus.class), true, ParameterSpec.builder(className, "data", Modifier.FINAL).build()));
+            builder.addMethod(call("update", ClassName.get(Integer.class), true, ParameterSpec.builder(className, "data", Modifier.FINAL).build()));
+            builder.addMethod(call("delete", ClassName.get(Integer.class), true, ParameterSpec.builder(className, "data", Modifier.FINAL).build()));
+            builder.addMethod(call("delete", ClassName.get(Integer.class), true, ParameterSpec.builder(collectionOfT, "datas", Modifier.FINAL).build()));
+            builder.addMethod(call("deleteById", ClassName.get(Integer.class), true, ParameterSpec.builder(idType, "id", Modifier.FINAL).build()));
+            builder.addMethod(call("deleteIds", ClassName.get(Integer.class), true,
+                    ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Collection.class), idType), "ids", Modifier.FINAL).build()));
+        }
+
+        return JavaFile.builder(asyncDaoName.packageName(), builder.build()).build();
+    }
+
+    /**
+     * Builds a method which runs the DAO method with the same name and parameters on OrmLiteAsync.
+     */
+    private static MethodSpec call(String name, TypeName result, boolean write, ParameterSpec... parameters) {
+        StringBuilder arguments = new StringBuilder();
+        for (ParameterSpec parameter : parameters) {
+            if (arguments.length() > 0) {
+                arguments.append(", ");
+            }
+            arguments.append(parameter.name);
+        }
+
+        TypeSpec callable = TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(ParameterizedTypeName.get(ClassName.get(Callable.class), result))
+                .addMethod(MethodSpec.methodBuilder("call")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(result)
+                        .addException(Exception.class)
+                        .addStatement("return dao.$L($L)", name, arguments)
+                        .build())
+                .build();
+
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(name)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(COMPLETABLE_FUTURE, result));
+        for (ParameterSpec parameter : parameters) {
+            builder.addParameter(parameter);
+        }
+        if (write) {
+            builder.addStatement("return async.write(dao.getConnectionSource(), $L)", callable);
+        } else {
+            builder.addStatement("return async.read($L)", callable);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Koen Vlaswinkel
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.BaseDaoImpl;
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.db.DatabaseType;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.table.TableInfo;
+import com.squareup.javapoet.*;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Generates the $$ChangeTracker classes and the ChangeTracker class they extend. A change tracker updates only the
+ * columns which changed since a snapshot was taken and checks the version field, if there is one.
+ */
+public class ChangeTrackerGenerator {
+    public static final ClassName CHANGE_TRACKER = ClassName.get("com.koenv.ormlite.processor", "ChangeTracker");
+
+    private static final TypeVariableName T = TypeVariableName.get("T");
+    private static final TypeVariableName ID = TypeVariableName.get("ID");
+
+    private final Types typeUtils;
+
+    public ChangeTrackerGenerator(Types typeUtils) {
+        this.typeUtils = typeUtils;
+    }
+
+    public JavaFile generateChangeTracker() {
+        TypeName daoType = ParameterizedTypeName.get(ClassName.get(Dao.class), T, ID);
+        TypeName tableInfoType = ParameterizedTypeName.get(ClassName.get(TableInfo.class), T, ID);
+        TypeName baseDaoType = ParameterizedTypeName.get(ClassName.get(BaseDaoImpl.class), T, ID);
+        TypeName listOfObjects = ParameterizedTypeName.get(List.class, Object.class);
+        TypeName arrayListOfObjects = ParameterizedTypeName.get(ArrayList.class, Object.class);
+        TypeName listOfFieldTypes = ParameterizedTypeName.get(List.class, FieldType.class);
+        TypeName arrayListOfFieldTypes = ParameterizedTypeName.get(ArrayList.class, FieldType.class);
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(CHANGE_TRACKER.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                .addTypeVariable(T)
+                .addTypeVariable(ID)
+                .addJavadoc("Updates only the columns which changed since {@link #snapshot} was called. If the table has a version\n"
+                        + "field, the update only succeeds if the version in the database is still the version of the snapshot.\n")
+                .addField(FieldSpec.builder(TypeName.INT, "UNCHANGED", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .addJavadoc("Returned by {@link #update} if no field changed, in which case nothing is written.\n")
+                        .initializer("$L", -1)
+                        .build())
+                .addField(daoType, "dao", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(String.class, "tableName", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(FieldType.class, "idField", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(ArrayTypeName.of(FieldType.class), "fieldTypes", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(TypeName.INT, "versionIndex", Modifier.PRIVATE, Modifier.FINAL);
+
+        builder.addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PROTECTED)
+                .addJavadoc("@param fieldNames the names of the fields to track, excluding the id field\n"
+                        + "@param versionIndex the index of the version field in fieldNames, or -1 if there is none\n")
+                .addParameter(daoType, "dao")
+                .addParameter(ArrayTypeName.of(String.class), "fieldNames")
+                .addParameter(TypeName.INT, "versionIndex")
+                .beginControlFlow("if (!(dao instanceof $T))", BaseDaoImpl.class)
+                .addStatement("throw new $T($S + dao.getClass())", IllegalArgumentException.class, "Change tracking requires a BaseDaoImpl, but got ")
+                .endControlFlow()
+                .addStatement("$T tableInfo = (($T) dao).getTableInfo()", tableInfoType, baseDaoType)
+                .addStatement("this.dao = dao")
+                .addStatement("this.tableName = tableInfo.getTableName()")
+                .addStatement("this.idField = tableInfo.getIdField()")
+                .addStatement("this.fieldTypes = new $T[fieldNames.length]", FieldType.class)
+                .beginControlFlow("for ($T fieldType : tableInfo.getFieldTypes())", FieldType.class)
+                .beginControlFlow("for (int i = 0; i < fieldNames.length; i++)")
+                .beginControlFlow("if (fieldNames[i].equals(fieldType.getFieldName()))")
+                .addStatement("fieldTypes[i] = fieldType")
+                .endControlFlow()
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("this.versionIndex = versionIndex")
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("copy")
+                .addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
+                .addJavadoc("Returns a copy of the value of the field at index if it is mutable, otherwise the value itself.\n")
+                .returns(Object.class)
+                .addParameter(TypeName.INT, "index")
+                .addParameter(Object.class, "value")
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("isChanged")
+                .addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
+                .addJavadoc("Returns whether the value of the field at index differs from the value in the snapshot.\n")
+                .returns(TypeName.BOOLEAN)
+                .addParameter(TypeName.INT, "index")
+                .addParameter(Object.class, "oldValue")
+                .addParameter(Object.class, "newValue")
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("snapshot")
+                .addModifiers(Modifier.PUBLIC)
+                .addJavadoc("Takes a snapshot of the values of data, which should be taken right after it was loaded.\n")
+                .returns(ArrayTypeName.of(Object.class))
+                .addParameter(T, "data")
+                .addException(SQLException.class)
+                .addStatement("$T[] snapshot = new $T[fieldTypes.length]", Object.class, Object.class)
+                .beginControlFlow("for (int i = 0; i < fieldTypes.length; i++)")
+                .addStatement("snapshot[i] = copy(i, fieldTypes[i].extractJavaFieldValue(data))")
+                .endControlFlow()
+                .addStatement("return snapshot")
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("isChanged")
+                .addModifiers(Modifier.PUBLIC)
+                .addJavadoc("Returns whether any field of data changed since the snapshot was taken.\n")
+                .returns(TypeName.BOOLEAN)
+                .addParameter(T, "data")
+                .addParameter(ArrayTypeName.of(Object.class), "snapshot")
+                .addException(SQLException.class)
+                .beginControlFlow("for (int i = 0; i < fieldTypes.length; i++)")
+                .beginControlFlow("if (i != versionIndex && isChanged(i, snapshot[i], fieldTypes[i].extractJavaFieldValue(data)))")
+                .addStatement("return true")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return false")
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("update")
+                .addModifiers(Modifier.PUBLIC)
+                .addJavadoc("Writes the columns of data which changed since the snapshot was taken and updates the snapshot.\n"
+                        + "If there is a version field, it is incremented and the update only happens if the version in the\n"
+                        + "database still matches the snapshot.\n"
+                        + "\n"
+                        + "@return the number of rows updated, or {@link #UNCHANGED} if nothing changed. 0 means the row was not\n"
+                        + "updated because somebody else updated or deleted it since the snapshot was taken.\n")
+                .returns(TypeName.INT)
+                .addParameter(T, "data")
+                .addParameter(ArrayTypeName.of(Object.class), "snapshot")
+                .addException(SQLException.class)
+                .addStatement("$T connectionSource = dao.getConnectionSource()", ConnectionSource.class)
+                .addStatement("$T databaseType = connectionSource.getDatabaseType()", DatabaseType.class)
+                .addStatement("$T values = new $T[fieldTypes.length]", ArrayTypeName.of(Object.class), Object.class)
+                .addStatement("$T args = new $T()", listOfObjects, arrayListOfObjects)
+                .addStatement("$T argFieldTypes = new $T()", listOfFieldTypes, arrayListOfFieldTypes)
+                .addStatement("$T sb = new $T(128)", StringBuilder.class, StringBuilder.class)
+                .addStatement("sb.append($S)", "UPDATE ")
+                .addStatement("databaseType.appendEscapedEntityName(sb, tableName)")
+                .addStatement("sb.append($S)", " SET ")
+                .beginControlFlow("for (int i = 0; i < fieldTypes.length; i++)")
+                .addStatement("values[i] = fieldTypes[i].extractJavaFieldValue(data)")
+                .beginControlFlow("if (i != versionIndex && isChanged(i, snapshot[i], values[i]))")
+                .addStatement("appendSet(databaseType, sb, fieldTypes[i], args, argFieldTypes, values[i])")
+                .endControlFlow()
+                .endControlFlow()
+                .beginControlFlow("if (args.isEmpty())")
+                .addStatement("return UNCHANGED")
+                .endControlFlow()
+                .addStatement("$T newVersion = null", Object.class)
+                .beginControlFlow("if (versionIndex >= 0)")
+                .addStatement("newVersion = fieldTypes[versionIndex].moveToNextValue(snapshot[versionIndex])")
+                .addStatement("appendSet(databaseType, sb, fieldTypes[versionIndex], args, argFieldTypes, newVersion)")
+                .endControlFlow()
+                .addStatement("sb.setLength(sb.length() - 1)")
+                .addStatement("sb.append($S)", " WHERE ")
+                .addStatement("appendWhere(databaseType, sb, idField, args, argFieldTypes, idField.extractJavaFieldValue(data))")
+                .beginControlFlow("if (versionIndex >= 0)")
+                .addStatement("sb.append($S)", " AND ")
+                .addStatement("appendWhere(databaseType, sb, fieldTypes[versionIndex], args, argFieldTypes, snapshot[versionIndex])")
+                .endControlFlow()
+                .addStatement("$T connection = connectionSource.getReadWriteConnection()", DatabaseConnection.class)
+                .addStatement("int rows")
+                .beginControlFlow("try")
+                .addStatement("rows = connection.update(sb.toString(), args.toArray(), argFieldTypes.toArray(new $T[argFieldTypes.size()]))", FieldType.class)
+                .nextControlFlow("finally")
+                .addStatement("connectionSource.releaseConnection(connection)")
+                .endControlFlow()
+                .beginControlFlow("if (rows > 0)")
+                .beginControlFlow("for (int i = 0; i < fieldTypes.length; i++)")
+                .addStatement("snapshot[i] = copy(i, values[i])")
+                .endControlFlow()
+                .beginControlFlow("if (versionIndex >= 0)")
+                .addStatement("fieldTypes[versionIndex].assignField(data, newVersion, false, null)")
+                .addStatement("snapshot[versionIndex] = newVersion")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return rows")
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("appendSet")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(DatabaseType.class, "databaseType")
+                .addParameter(StringBuilder.class, "sb")
+                .addParameter(FieldType.class, "fieldType")
+                .addParameter(listOfObjects, "args")
+                .addParameter(listOfFieldTypes, "argFieldTypes")
+                .addParameter(Object.class, "value")
+                .addException(SQLException.class)
+                .addStatement("appendWhere(databaseType, sb, fieldType, args, argFieldTypes, value)")
+                .addStatement("sb.append(',')")
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("appendWhere")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(DatabaseType.class, "databaseType")
+                .addParameter(StringBuilder.class, "sb")
+                .addParameter(FieldType.class, "fieldType")
+                .addParameter(listOfObjects, "args")
+                .addParameter(listOfFieldTypes, "argFieldTypes")
+                .addParameter(Object.class, "value")
+                .addException(SQLException.class)
+                .addStatement("databaseType.appendEscapedEntityName(sb, fieldType.getColumnName())")
+                .addStatement("sb.append($S)", " = ?")
+                .addStatement("args.add(fieldType.convertJavaFieldToSqlArgValue(value))")
+                .addStatement("argFieldTypes.add(fieldType)")
+                .build());
+
+        return JavaFile.builder(CHANGE_TRACKER.packageName(), builder.build()).build();
+    }
+
+    /**
+     * Generates the change tracker of a table, or returns null if the table does not have an id.
+     */
+    public JavaFile generateChangeTracker(TableBindings table) {
+        TypeName idType = table.getIdTypeName(typeUtils);
+        if (idType == null) {
+            return null;
+        }
+        ClassName className = table.getClassName();
+        ClassName trackerName = table.getChangeTrackerName();
+        TypeName daoType = ParameterizedTypeName.get(ClassName.get(Dao.class), className, idType);
+
+        List<FieldBindings> trackedFields = new ArrayList<FieldBindings>();
+        FieldBindings idField = table.getIdField();
+        int versionIndex = -1;
+        for (FieldBindings fieldConfig : table.getFieldConfigs()) {
+            if (fieldConfig == idField || fieldConfig.isForeignCollection() || fieldConfig.isReadOnly()) {
+                continue;
+            }
+            if (fieldConfig.isVersion()) {
+                versionIndex = trackedFields.size();
+            }
+            trackedFields.add(fieldConfig);
+        }
+
+        CodeBlock.Builder fieldNames = CodeBlock.builder();
+        for (int i = 0; i < trackedFields.size(); i++) {
+            fieldNames.add(i == 0 ? "$S" : ", $S", trackedFields.get(i).getFieldName());
+        }
+
+        MethodSpec.Builder copyBuilder = MethodSpec.methodBuilder("copy")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PROTECTED)
+                .returns(Object.class)
+                .addParameter(TypeName.INT, "index")
+                .addParameter(Object.class, "value")
+                .beginControlFlow("if (value == null)")
+                .addStatement("return null")
+                .endControlFlow()
+                .beginControlFlow("switch (index)");
+        MethodSpec.Builder isChangedBuilder = MethodSpec.methodBuilder("isChanged")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PROTECTED)
+                .returns(TypeName.BOOLEAN)
+                .addParameter(TypeName.INT, "index")
+                .addParameter(Object.class, "oldValue")
+                .addParameter(Object.class, "newValue")
+                .beginControlFlow("switch (index)");
+        for (int i = 0; i < trackedFields.size(); i++) {
+            FieldBindings fieldConfig = trackedFields.get(i);
+            TypeMirror type = fieldConfig.getFieldType();
+            if (fieldConfig.isForeign()) {
+                // foreign fields are extracted as the id of the foreign object, which is compared with equals
+                continue;
+            }
+            if (type.getKind() == TypeKind.ARRAY) {
+                TypeName arrayType = TypeName.get(type);
+                copyBuilder.addStatement("case $L: return (($T) value).clone()", i, arrayType);
+                isChangedBuilder.addStatement("case $L: return !$T.equals(($T) oldValue, ($T) newValue)", i, Arrays.class, arrayType, arrayType);
+            } else if (isDate(type)) {
+                copyBuilder.addStatement("case $L: return (($T) value).clone()", i, Date.class);
+            }
+        }
+        copyBuilder.addStatement("default: return value")
+                .endControlFlow();
+        isChangedBuilder.addStatement("default: return oldValue == null ? newValue != null : !oldValue.equals(newValue)")
+                .endControlFlow();
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(trackerName.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addOriginatingElement(table.getElement())
+                .superclass(ParameterizedTypeName.get(CHANGE_TRACKER, className, idType))
+                .addJavadoc("Tracks the changes of {@link $T}\n", className)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(daoType, "dao")
+                        .addStatement("super(dao, new $T[] {$L}, $L)", String.class, fieldNames.build(), versionIndex)
+                        .build())
+                .addMethod(copyBuilder.build())
+                .addMethod(isChangedBuilder.build());
+
+        return JavaFile.builder(trackerName.packageName(), builder.build()).build();
+    }
+
+    private boolean isDate(TypeMirror type) {
+        TypeMirror current = type;
+        while (current.getKind() == TypeKind.DECLARED) {
+            if (current.toString().equals(Date.class.getName())) {
+                return true;
+            }
+            List<? extends TypeMirror> supertypes = typeUtils.directSupertypes(current);
+            if (supertypes.isEmpty()) {
+                return false;
+            }
+            current = supertypes.get(0);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Koen Vlaswinkel
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.field.DataType;
+import com.j256.ormlite.stmt.PreparedQuery;
+import com.j256.ormlite.stmt.QueryBuilder;
+import com.j256.ormlite.stmt.StatementBuilder;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseResults;
+import com.squareup.javapoet.*;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates the $$Columns classes, which load the numeric and boolean columns of a query into primitive arrays instead
+ * of creating an object for every row.
+ */
+public class ColumnsGenerator {
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The data types which are read with the same getter as the default data type of a primitive field.
+     */
+    private static final Set<DataType> PRIMITIVE_DATA_TYPES = EnumSet.of(
+            DataType.UNKNOWN,
+            DataType.BOOLEAN, DataType.BOOLEAN_OBJ,
+            DataType.BYTE, DataType.BYTE_OBJ,
+            DataType.SHORT, DataType.SHORT_OBJ,
+            DataType.INTEGER, DataType.INTEGER_OBJ,
+            DataType.LONG, DataType.LONG_OBJ,
+            DataType.FLOAT, DataType.FLOAT_OBJ,
+            DataType.DOUBLE, DataType.DOUBLE_OBJ
+    );
+
+    private final Types typeUtils;
+
+    public ColumnsGenerator(Types typeUtils) {
+        this.typeUtils = typeUtils;
+    }
+
+    /**
+     * Generates the columns class of a table, or returns null if it does not have any numeric or boolean columns.
+     */
+    public JavaFile generateColumns(TableBindings table) {
+        List<FieldBindings> fields = new ArrayList<FieldBindings>();
+        List<TypeKind> kinds = new ArrayList<TypeKind>();
+        for (FieldBindings fieldConfig : table.getFieldConfigs()) {
+            TypeKind kind = getPrimitiveKind(fieldConfig);
+            if (kind != null) {
+                fields.add(fieldConfig);
+                kinds.add(kind);
+            }
+        }
+        if (fields.isEmpty()) {
+            return null;
+        }
+
+        ClassName className = table.getClassName();
+        ClassName columnsName = table.getGeneratedName("$$Columns");
+        TypeName daoType = ParameterizedTypeName.get(ClassName.get(Dao.class), className, WildcardTypeName.subtypeOf(Object.class));
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(columnsName.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addOriginatingElement(table.getElement())
+                .addJavadoc("The numeric and boolean columns of {@link $T}, with one array element per row\n", className);
+
+        MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE);
+        StringBuilder columnNames = new StringBuilder();
+        List<Object> columnNameArgs = new ArrayList<Object>();
+        for (int i = 0; i < fields.size(); i++) {
+            String fieldName = fields.get(i).getFieldName();
+            ArrayTypeName arrayType = ArrayTypeName.of(TypeName.get(typeUtils.getPrimitiveType(kinds.get(i))));
+            builder.addField(arrayType, fieldName, Modifier.PUBLIC, Modifier.FINAL);
+            constructor.addParameter(arrayType, fieldName)
+                    .addStatement("this.$L = $L", fieldName, fieldName);
+            String columnName = fields.get(i).getColumnName();
+            columnNames.append(i == 0 ? "$S" : ", $S");
+            columnNameArgs.add(columnName == null ? fieldName : columnName);
+        }
+        builder.addMethod(constructor.build());
+
+        builder.addMethod(MethodSpec.methodBuilder("queryForAll")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Loads the columns of all rows.\n")
+                .returns(columnsName)
+                .addParameter(daoType, "dao")
+                .addException(SQLException.class)
+                .addStatement("return query(dao, dao.queryBuilder())")
+                .build());
+
+        MethodSpec.Builder query = MethodSpec.methodBuilder("query")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Loads the columns of the rows matched by the query builder, which is changed to also select these columns.\n")
+                .returns(columnsName)
+                .addParameter(daoType, "dao")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(QueryBuilder.class), className, WildcardTypeName.subtypeOf(Object.class)), "queryBuilder")
+                .addException(SQLException.class)
+                .addStatement("queryBuilder.selectColumns(" + columnNames + ")", columnNameArgs.toArray())
+                .addStatement("$T query = queryBuilder.prepare()", ParameterizedTypeName.get(ClassName.get(PreparedQuery.class), className))
+                .addStatement("int size = 0");
+        StringBuilder trimmed = new StringBuilder();
+        List<Object> trimmedArgs = new ArrayList<Object>();
+        for (int i = 0; i < fields.size(); i++) {
+            // suffixed, so they can't clash with the other local variables
+            String fieldName = fields.get(i).getFieldName() + "Values";
+            TypeName elementType = TypeName.get(typeUtils.getPrimitiveType(kinds.get(i)));
+            query.addStatement("$T[] $L = new $T[$L]", elementType, fieldName, elementType, INITIAL_CAPACITY);
+            trimmed.append(i == 0 ? "$T.copyOf($L, size)" : ", $T.copyOf($L, size)");
+            trimmedArgs.add(Arrays.class);
+            trimmedArgs.add(fieldName);
+        }
+        query.addStatement("$T connectionSource = dao.getConnectionSource()", ConnectionSource.class)
+                .addStatement("$T connection = connectionSource.getReadOnlyConnection()", DatabaseConnection.class)
+                .addStatement("$T statement = null", CompiledStatement.class)
+                .addStatement("$T results = null", DatabaseResults.class)
+                .beginControlFlow("try")
+                .addStatement("statement = query.compile(connection, $T.SELECT)", StatementBuilder.StatementType.class)
+                .addStatement("results = statement.runQuery(null)");
+        // by name, the query builder may have selected other columns before
+        for (int i = 0; i < fields.size(); i++) {
+            query.addStatement("int $LColumn = results.findColumn($S)", fields.get(i).getFieldName(), columnNameArgs.get(i));
+        }
+        query
+                .addStatement("boolean more = results.first()")
+                .beginControlFlow("while (more)")
+                .beginControlFlow("if (size == $LValues.length)", fields.get(0).getFieldName());
+        for (FieldBindings field : fields) {
+            query.addStatement("$LValues = $T.copyOf($LValues, size * 2)", field.getFieldName(), Arrays.class, field.getFieldName());
+        }
+        query.endControlFlow();
+        for (int i = 0; i < fields.size(); i++) {
+            query.addStatement("$LValues[size] = results.$L($LColumn)", fields.get(i).getFieldName(), getGetter(kinds.get(i)), fields.get(i).getFieldName());
+        }
+        query.addStatement("size++")
+                .addStatement("more = results.next()")
+                .endControlFlow()
+                .nextControlFlow("finally")
+                .beginControlFlow("if (results != null)")
+                .addStatement("results.closeQuietly()")
+                .endControlFlow()
+                .beginControlFlow("if (statement != null)")
+                .addStatement("statement.closeQuietly()")
+                .endControlFlow()
+                .addStatement("connectionSource.releaseConnection(connection)")
+                .endControlFlow()
+                .addStatement("return new $T(" + trimmed + ")", concat(columnsName, trimmedArgs));
+        builder.addMethod(query.build());
+
+        return JavaFile.builder(columnsName.packageName(), builder.build()).build();
+    }
+
+    /**
+     * Returns the kind of the primitive array the field is loaded into, or null if it is not a numeric or boolean
+     * column with a default conversion, or if it is a boxed field which can be null.
+     */
+    private TypeKind getPrimitiveKind(FieldBindings fieldConfig) {
+        if (fieldConfig.isForeign() || fieldConfig.isForeignCollection() || !PRIMITIVE_DATA_TYPES.contains(fieldConfig.getDataType())) {
+            return null;
+        }
+        if (fieldConfig.getPersisterClass() != null && !fieldConfig.getPersisterClass().getQualifiedName().toString().equals("com.j256.ormlite.field.types.VoidType")) {
+            return null;
+        }
+        TypeMirror type = fieldConfig.getFieldType();
+        if (!type.getKind().isPrimitive()) {
+            // a primitive array can't hold null
+            if (fieldConfig.isCanBeNull()) {
+                return null;
+            }
+            try {
+                type = typeUtils.unboxedType(type);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        TypeKind kind = type.getKind();
+        return kind == TypeKind.CHAR ? null : kind;
+    }
+
+    private static Object[] concat(Object first, List<Object> rest) {
+        List<Object> args = new ArrayList<Object>();
+        args.add(first);
+        args.addAll(rest);
+        return args.toArray();
+    }
+
+    private static String getGetter(TypeKind kind) {
+        String name = kind.name().toLowerCase();
+        return kind == TypeKind.INT ? "getInt" : "get" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
@@ -18,9 +18,9 @@
  */
 package com.koenv.ormlite.processor;
 
-import com.j256.ormlite.db.DatabaseType;
 import com.j256.ormlite.field.DataType;
 import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.field.FieldType;
 import com.j256.ormlite.field.ForeignCollectionField;
 
 import javax.annotation.processing.Messager;
@@ -30,6 +30,7 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
 
@@ -47,6 +48,7 @@ public class FieldBindings {
     public static final boolean DEFAULT_FOREIGN_COLLECTION_ORDER_ASCENDING = true;
 
     private String fieldName;
+    private TypeMirror fieldType;
     private String columnName;
     private DataType dataType = DEFAULT_DATA_TYPE;
     private String defaultValue;
@@ -75,6 +77,8 @@ public class FieldBindings {
     private boolean version;
     private String foreignColumnName;
     private boolean readOnly;
+    private Searchable.Module searchModule;
+    private boolean lazy;
     // foreign collection field information
     private boolean foreignCollection;
     private boolean foreignCollectionEager;
@@ -94,6 +98,13 @@ public class FieldBindings {
         return fieldName;
     }
 
+    /**
+     * Return the declared type of the field in the class.
+     */
+    public TypeMirror getFieldType() {
+        return fieldType;
+    }
+
     /**
      * @see DatabaseField#columnName()
      */
@@ -266,12 +277,30 @@ public class FieldBindings {
         return readOnly;
     }
 
-    public static FieldBindings fromDatabaseField(DatabaseType databaseType, Element field, DatabaseField databaseField, Types typeUtils, Messager messager) {
+    /**
+     * Return the full-text search module of the field, or null if it is not searchable.
+     *
+     * @see Searchable
+     */
+    public Searchable.Module getSearchModule() {
+        return searchModule;
+    }
+
+    /**
+     * Return whether the field is left out of the queries of the generated $$Lazy class.
+     *
+     * @see Lazy
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    public static FieldBindings fromDatabaseField(Element field, DatabaseField databaseField, Types typeUtils, Messager messager) {
         FieldBindings bindings = new FieldBindings();
+        // the field name is never upper cased because it is used to look up the field in the class, column names
+        // are upper cased at runtime by the database type of the connection source
         bindings.fieldName = field.getSimpleName().toString();
-        if (databaseType.isEntityNamesMustBeUpCase()) {
-            bindings.fieldName = bindings.fieldName.toUpperCase();
-        }
+        bindings.fieldType = field.asType();
         bindings.columnName = valueIfNotBlank(databaseField.columnName());
         bindings.dataType = databaseField.dataType();
         // NOTE: == did not work with the NO_DEFAULT string
@@ -314,6 +343,31 @@ public class FieldBindings {
         bindings.version = databaseField.version();
         bindings.foreignColumnName = valueIfNotBlank(databaseField.foreignColumnName());
         bindings.readOnly = databaseField.readOnly();
+        Searchable searchable = field.getAnnotation(Searchable.class);
+        if (searchable != null) {
+            if (!bindings.fieldType.toString().equals(String.class.getName())) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Only String fields can be @Searchable", field);
+                return null;
+            }
+            bindings.searchModule = searchable.module();
+        }
+        if (field.getAnnotation(Lazy.class) != null) {
+            String type = bindings.fieldType.toString();
+            if (!type.equals(String.class.getName()) && !type.equals("byte[]")) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Only String and byte[] fields can be @Lazy", field);
+                return null;
+            }
+            if (bindings.id || bindings.generatedId || bindings.version || bindings.unique || bindings.uniqueCombo
+                    || bindings.index || bindings.uniqueIndex) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Id, version, unique and indexed fields can not be @Lazy", field);
+                return null;
+            }
+            if (bindings.width <= 255 && bindings.dataType != DataType.LONG_STRING && bindings.dataType != DataType.BYTE_ARRAY
+                    && bindings.columnDefinition == null) {
+                messager.printMessage(Diagnostic.Kind.WARNING, "@Lazy field is not declared as a large column, set its width, dataType or columnDefinition", field);
+            }
+            bindings.lazy = true;
+        }
 
         return bindings;
     }
@@ -348,6 +402,7 @@ public class FieldBindings {
     public static FieldBindings fromForeignCollection(Element field, ForeignCollectionField foreignCollection) {
         FieldBindings bindings = new FieldBindings();
         bindings.fieldName = field.getSimpleName().toString();
+        bindings.fieldType = field.asType();
         if (foreignCollection.columnName().length() > 0) {
             bindings.columnName = foreignCollection.columnName();
         }
@@ -374,6 +429,52 @@ public class FieldBindings {
         return bindings;
     }
 
+    /**
+     * Append everything about this field that influences the schema of the table to the string builder.
+     */
+    public void appendSchema(StringBuilder sb, String tableName) {
+        sb.append(columnName == null ? fieldName : columnName).append('|');
+        appendDefinition(sb);
+        sb.append('|').append(getIndexName(tableName))
+                .append('|').append(getUniqueIndexName(tableName));
+        if (searchModule != null) {
+            sb.append('|').append(searchModule);
+        }
+    }
+
+    /**
+     * Append the type and constraints of the column to the string builder, which is everything of the schema except
+     * the name and the indexes of the column.
+     */
+    public void appendDefinition(StringBuilder sb) {
+        sb.append(fieldType)
+                .append('|').append(dataType.name())
+                .append('|').append(persisterClass == null ? null : persisterClass.getQualifiedName())
+                .append('|').append(width)
+                .append('|').append(canBeNull)
+                .append('|').append(id)
+                .append('|').append(generatedId)
+                .append('|').append(generatedIdSequence)
+                .append('|').append(defaultValue)
+                .append('|').append(columnDefinition)
+                .append('|').append(foreign)
+                .append('|').append(foreignColumnName)
+                .append('|').append(unique)
+                .append('|').append(uniqueCombo)
+                .append('|').append(version);
+    }
+
+    /**
+     * Return the name of the column in the database, which defaults to the field name. OrmLite appends a suffix to
+     * the default column names of foreign fields.
+     */
+    public String getColumnNameOrDefault() {
+        if (columnName != null) {
+            return columnName;
+        }
+        return foreign ? fieldName + FieldType.FOREIGN_ID_FIELD_SUFFIX : fieldName;
+    }
+
     private String findIndexName(String tableName) {
         if (columnName == null) {
             return tableName + "_" + fieldName + "_idx";
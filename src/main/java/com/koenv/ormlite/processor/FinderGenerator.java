@@ -0,0 +1,258 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Koen Vlaswinkel
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.stmt.QueryBuilder;
+import com.j256.ormlite.stmt.SelectArg;
+import com.j256.ormlite.stmt.StatementBuilder;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseResults;
+import com.squareup.javapoet.*;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.util.Types;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Generates the $$Finders classes and the Finder class they use. A finder queries the rows where a column which has an
+ * index equals an argument. The statement is built once per DAO, after which only the argument is bound.
+ */
+public class FinderGenerator {
+    public static final ClassName FINDER = ClassName.get("com.koenv.ormlite.processor", "Finder");
+
+    private static final TypeVariableName T = TypeVariableName.get("T");
+
+    private final Types typeUtils;
+
+    public FinderGenerator(Types typeUtils) {
+        this.typeUtils = typeUtils;
+    }
+
+    public JavaFile generateFinder() {
+        TypeName daoType = ParameterizedTypeName.get(ClassName.get(Dao.class), T, WildcardTypeName.subtypeOf(Object.class));
+        TypeName listOfT = ParameterizedTypeName.get(ClassName.get(List.class), T);
+        TypeName arrayListOfT = ParameterizedTypeName.get(ClassName.get(ArrayList.class), T);
+
+        TypeSpec statement = TypeSpec.classBuilder("Statement")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addField(String.class, "sql", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(FieldType.class, "fieldType", Modifier.PRIVATE, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addParameter(String.class, "sql")
+                        .addParameter(FieldType.class, "fieldType")
+                        .addStatement("this.sql = sql")
+                        .addStatement("this.fieldType = fieldType")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("getSqlArgValue")
+                        .returns(Object.class)
+                        .addParameter(Object.class, "value")
+                        .addException(SQLException.class)
+                        .beginControlFlow("if (value != null && fieldType.isForeign() && fieldType.getType().isInstance(value))")
+                        .addStatement("value = fieldType.getForeignIdField().extractJavaFieldValue(value)")
+                        .endControlFlow()
+                        .addStatement("return fieldType.convertJavaFieldToSqlArgValue(value)")
+                        .build())
+                .build();
+        ClassName statementName = FINDER.nestedClass(statement.name);
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(FINDER.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addTypeVariable(T)
+                .addJavadoc("Queries the rows where a column equals an argument. The statement is built once per DAO, after which\n"
+                        + "only the argument is bound, so a finder can be used by multiple threads at the same time.\n")
+                .addField(String.class, "columnName", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(Map.class), daoType, statementName), "statements", Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T()", ParameterizedTypeName.get(ClassName.get(WeakHashMap.class), daoType, statementName))
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(String.class, "columnName")
+                        .addStatement("this.columnName = columnName")
+                        .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("getStatement")
+                .addModifiers(Modifier.PRIVATE, Modifier.SYNCHRONIZED)
+                .returns(statementName)
+                .addParameter(daoType, "dao")
+                .addException(SQLException.class)
+                .addStatement("$T statement = statements.get(dao)", statementName)
+                .beginControlFlow("if (statement == null)")
+                .addStatement("$T queryBuilder = dao.queryBuilder()", ParameterizedTypeName.get(ClassName.get(QueryBuilder.class), T, WildcardTypeName.subtypeOf(Object.class)))
+                .addStatement("$T arg = new $T()", SelectArg.class, SelectArg.class)
+                .addStatement("queryBuilder.where().eq(columnName, arg)")
+                .addStatement("statement = new $T(queryBuilder.prepareStatementString(), arg.getFieldType())", statementName)
+                .addStatement("statements.put(dao, statement)")
+                .endControlFlow()
+                .addStatement("return statement")
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("query")
+                .addModifiers(Modifier.PUBLIC)
+                .addJavadoc("Returns the rows where the column equals value.\n")
+                .returns(listOfT)
+                .addParameter(daoType, "dao")
+                .addParameter(Object.class, "value")
+                .addException(SQLException.class)
+                .addStatement("return query(dao, value, -1)")
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("queryForFirst")
+                .addModifiers(Modifier.PUBLIC)
+                .addJavadoc("Returns the first row where the column equals value, or null if there is none.\n")
+                .returns(T)
+                .addParameter(daoType, "dao")
+                .addParameter(Object.class, "value")
+                .addException(SQLException.class)
+                .addStatement("$T results = query(dao, value, 1)", listOfT)
+                .addStatement("return results.isEmpty() ? null : results.get(0)")
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("query")
+                .addModifiers(Modifier.PRIVATE)
+                .returns(listOfT)
+                .addParameter(daoType, "dao")
+                .addParameter(Object.class, "value")
+                .addParameter(TypeName.INT, "maxRows")
+                .addException(SQLException.class)
+                .addStatement("$T statement = getStatement(dao)", statementName)
+                .addStatement("$T connectionSource = dao.getConnectionSource()", ConnectionSource.class)
+                .addStatement("$T connection = connectionSource.getReadOnlyConnection()", DatabaseConnection.class)
+                .addStatement("$T compiledStatement = null", CompiledStatement.class)
+                .addStatement("$T results = null", DatabaseResults.class)
+                .beginControlFlow("try")
+                .addStatement("compiledStatement = connection.compileStatement(statement.sql, $T.SELECT, new $T[] {statement.fieldType}, $T.DEFAULT_RESULT_FLAGS)",
+                        StatementBuilder.StatementType.class, FieldType.class, DatabaseConnection.class)
+                .addStatement("compiledStatement.setObject(0, statement.getSqlArgValue(value), statement.fieldType.getSqlType())")
+                .beginControlFlow("if (maxRows > 0)")
+                .addStatement("compiledStatement.setMaxRows(maxRows)")
+                .endControlFlow()
+                .addStatement("results = compiledStatement.runQuery(dao.getObjectCache())")
+                .addStatement("$T list = new $T()", listOfT, arrayListOfT)
+                .beginControlFlow("if (results.first())")
+                .beginControlFlow("do")
+                .addStatement("list.add(dao.mapSelectStarRow(results))")
+                .endControlFlow("while (results.next())")
+                .endControlFlow()
+                .addStatement("return list")
+                .nextControlFlow("finally")
+                .beginControlFlow("if (results != null)")
+                .addStatement("results.closeQuietly()")
+                .endControlFlow()
+                .beginControlFlow("if (compiledStatement != null)")
+                .addStatement("compiledStatement.closeQuietly()")
+                .endControlFlow()
+                .addStatement("connectionSource.releaseConnection(connection)")
+                .endControlFlow()
+                .build());
+
+        builder.addType(statement);
+
+        return JavaFile.builder(FINDER.packageName(), builder.build()).build();
+    }
+
+    /**
+     * Generates the finders of a table, or returns null if it does not have any columns with an id, unique constraint
+     * or index.
+     */
+    public JavaFile generateFinders(TableBindings table) {
+        ClassName className = table.getClassName();
+        ClassName findersName = table.getGeneratedName("$$Finders");
+        TypeName finderType = ParameterizedTypeName.get(FINDER, className);
+        TypeName anyDaoType = ParameterizedTypeName.get(ClassName.get(Dao.class), className, WildcardTypeName.subtypeOf(Object.class));
+        TypeName listOfT = ParameterizedTypeName.get(ClassName.get(List.class), className);
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(findersName.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addOriginatingElement(table.getElement())
+                .addJavadoc("Finders for the columns of {@link $T} which have an id, unique constraint or index\n", className)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build());
+
+        boolean hasFinders = false;
+        for (FieldBindings fieldConfig : table.getFieldConfigs()) {
+            if (fieldConfig.isForeignCollection()) {
+                continue;
+            }
+            String fieldName = fieldConfig.getFieldName();
+            String suffix = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+            TypeName parameterType = TypeName.get(fieldConfig.getFieldType());
+            if (fieldConfig == table.getIdField()) {
+                TypeName daoType = ParameterizedTypeName.get(ClassName.get(Dao.class), className, table.getIdTypeName(typeUtils));
+                builder.addMethod(MethodSpec.methodBuilder("findBy" + suffix)
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                        .returns(className)
+                        .addParameter(daoType, "dao")
+                        .addParameter(parameterType, fieldName)
+                        .addException(SQLException.class)
+                        .addStatement("return dao.queryForId($L)", fieldName)
+                        .build());
+                hasFinders = true;
+                continue;
+            }
+            boolean unique = fieldConfig.isUnique() || fieldConfig.getUniqueIndexName(table.getTableName()) != null;
+            if (!unique && fieldConfig.getIndexName(table.getTableName()) == null) {
+                continue;
+            }
+            String finderName = fieldName.toUpperCase();
+            String columnName = fieldConfig.getColumnNameOrDefault();
+            builder.addField(FieldSpec.builder(finderType, finderName, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("new $T($S)", finderType, columnName)
+                    .build());
+            if (unique) {
+                builder.addMethod(MethodSpec.methodBuilder("findBy" + suffix)
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                        .returns(className)
+                        .addParameter(anyDaoType, "dao")
+                        .addParameter(parameterType, fieldName)
+                        .addException(SQLException.class)
+                        .addStatement("return $L.queryForFirst(dao, $L)", finderName, fieldName)
+                        .build());
+            } else {
+                builder.addMethod(MethodSpec.methodBuilder("findAllBy" + suffix)
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                        .returns(listOfT)
+                        .addParameter(anyDaoType, "dao")
+                        .addParameter(parameterType, fieldName)
+                        .addException(SQLException.class)
+                        .addStatement("return $L.query(dao, $L)", finderName, fieldName)
+                        .build());
+            }
+            hasFinders = true;
+        }
+
+        if (!hasFinders) {
+            return null;
+        }
+        return JavaFile.builder(findersName.packageName(), builder.build()).build();
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Koen Vlaswinkel
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.BaseDaoImpl;
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.stmt.QueryBuilder;
+import com.j256.ormlite.stmt.SelectArg;
+import com.j256.ormlite.table.TableInfo;
+import com.squareup.javapoet.*;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the $$ForeignCollections classes and the ForeignCollectionLoader class they use. A loader fetches the
+ * children of many parents with one IN query per chunk of parents, instead of one query per parent.
+ */
+public class ForeignCollectionGenerator {
+    public static final ClassName FOREIGN_COLLECTION_LOADER = ClassName.get("com.koenv.ormlite.processor", "ForeignCollectionLoader");
+
+    /**
+     * The maximum number of parents per query. SQLite does not allow more than 999 variables in a statement.
+     */
+    private static final int MAX_VARIABLES = 999;
+
+    private static final TypeVariableName P = TypeVariableName.get("P");
+    private static final TypeVariableName ID = TypeVariableName.get("ID");
+    private static final TypeVariableName C = TypeVariableName.get("C");
+
+    private final Types typeUtils;
+
+    public ForeignCollectionGenerator(Types typeUtils) {
+        this.typeUtils = typeUtils;
+    }
+
+    public JavaFile generateForeignCollectionLoader() {
+        TypeName parentDaoType = ParameterizedTypeName.get(ClassName.get(Dao.class), P, ID);
+        TypeName childDaoType = ParameterizedTypeName.get(ClassName.get(Dao.class), C, WildcardTypeName.subtypeOf(Object.class));
+        TypeName listOfC = ParameterizedTypeName.get(ClassName.get(List.class), C);
+        TypeName listOfID = ParameterizedTypeName.get(ClassName.get(List.class), ID);
+        TypeName resultType = ParameterizedTypeName.get(ClassName.get(Map.class), ID, listOfC);
+
+        MethodSpec load = MethodSpec.methodBuilder("load")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+                .addTypeVariable(P)
+                .addTypeVariable(ID)
+                .addTypeVariable(C)
+                .addJavadoc("Loads the children of all parents, with one query per $L parents, and returns them by the id of their\n"
+                        + "parent. The foreign field of every child is set to its parent and if the foreign collection field is\n"
+                        + "declared as a {@link $T}, it is set to the children of the parent.\n"
+                        + "\n"
+                        + "@param collectionFieldName the name of the foreign collection field in the parent class\n"
+                        + "@param foreignFieldName the name of the field in the child class which refers to the parent, or null to\n"
+                        + "use the first field with the type of the parent\n"
+                        + "@param orderColumnName the column to order the children by, or null\n", MAX_VARIABLES, Collection.class)
+                .returns(resultType)
+                .addParameter(parentDaoType, "dao")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class), P), "parents")
+                .addParameter(String.class, "collectionFieldName")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), C), "childClass")
+                .addParameter(String.class, "foreignFieldName")
+                .addParameter(String.class, "orderColumnName")
+                .addParameter(TypeName.BOOLEAN, "orderAscending")
+                .addException(SQLException.class)
+                .addStatement("$T childDao = $T.createDao(dao.getConnectionSource(), childClass)", childDaoType, DaoManager.class)
+                .addStatement("$T tableInfo = getTableInfo(dao)", ParameterizedTypeName.get(ClassName.get(TableInfo.class), P, ID))
+                .addStatement("$T idField = tableInfo.getIdField()", FieldType.class)
+                .addStatement("$T collectionField = null", FieldType.class)
+                .beginControlFlow("for ($T fieldType : tableInfo.getFieldTypes())", FieldType.class)
+                .beginControlFlow("if (fieldType.getFieldName().equals(collectionFieldName))")
+                .addStatement("collectionField = fieldType")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("$T foreignField = null", FieldType.class)
+                .beginControlFlow("for ($T fieldType : getTableInfo(childDao).getFieldTypes())", FieldType.class)
+                .beginControlFlow("if (fieldType.getType() == tableInfo.getDataClass() && (foreignFieldName == null || fieldType.getFieldName().equals(foreignFieldName)))")
+                .addStatement("foreignField = fieldType")
+                .addStatement("break")
+                .endControlFlow()
+                .endControlFlow()
+                .beginControlFlow("if (idField == null || collectionField == null || foreignField == null)")
+                .addStatement("throw new $T($S + collectionFieldName + $S + tableInfo.getDataClass())", SQLException.class,
+                        "Could not find the foreign field of collection ", " in ")
+                .endControlFlow()
+                .addStatement("$T parentsById = new $T()",
+                        ParameterizedTypeName.get(ClassName.get(Map.class), ID, P), ParameterizedTypeName.get(ClassName.get(HashMap.class), ID, P))
+                .addStatement("$T children = new $T()", resultType, ParameterizedTypeName.get(ClassName.get(LinkedHashMap.class), ID, listOfC))
+                .beginControlFlow("for ($T parent : parents)", P)
+                .addStatement("$T id = ($T) idField.extractJavaFieldValue(parent)", ID, ID)
+                .addStatement("parentsById.put(id, parent)")
+                .addStatement("children.put(id, new $T())", ParameterizedTypeName.get(ClassName.get(ArrayList.class), C))
+                .endControlFlow()
+                .addStatement("$T ids = new $T(children.keySet())", listOfID, ParameterizedTypeName.get(ClassName.get(ArrayList.class), ID))
+                .beginControlFlow("for (int start = 0; start < ids.size(); start += MAX_VARIABLES)")
+                .addStatement("$T chunk = ids.subList(start, $T.min(start + MAX_VARIABLES, ids.size()))", listOfID, Math.class)
+                .addStatement("$T[] args = new $T[chunk.size()]", SelectArg.class, SelectArg.class)
+                .beginControlFlow("for (int i = 0; i < args.length; i++)")
+                .addStatement("args[i] = new $T(chunk.get(i))", SelectArg.class)
+                .endControlFlow()
+                .addStatement("$T queryBuilder = childDao.queryBuilder()", ParameterizedTypeName.get(ClassName.get(QueryBuilder.class), C, WildcardTypeName.subtypeOf(Object.class)))
+                .beginControlFlow("if (orderColumnName != null)")
+                .addStatement("queryBuilder.orderBy(orderColumnName, orderAscending)")
+                .endControlFlow()
+                .addStatement("queryBuilder.where().in(foreignField.getColumnName(), ($T[]) args)", Object.class)
+                .beginControlFlow("for ($T child : queryBuilder.query())", C)
+                .addStatement("$T id = ($T) foreignField.extractJavaFieldValue(child)", ID, ID)
+                .addStatement("foreignField.assignField(child, parentsById.get(id), true, null)")
+                .addStatement("children.get(id).add(child)")
+                .endControlFlow()
+                .endControlFlow()
+                .beginControlFlow("if (collectionField.getType() == $T.class)", Collection.class)
+                .beginControlFlow("for ($T parent : parents)", P)
+                .addStatement("collectionField.assignField(parent, children.get(idField.extractJavaFieldValue(parent)), false, null)")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return children")
+                .build();
+
+        TypeVariableName t = TypeVariableName.get("T");
+        MethodSpec getTableInfo = MethodSpec.methodBuilder("getTableInfo")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addTypeVariable(t)
+                .addTypeVariable(ID)
+                .returns(ParameterizedTypeName.get(ClassName.get(TableInfo.class), t, ID))
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Dao.class), t, ID), "dao")
+                .beginControlFlow("if (!(dao instanceof $T))", BaseDaoImpl.class)
+                .addStatement("throw new $T($S + dao.getClass())", IllegalArgumentException.class, "Batched loading requires a BaseDaoImpl, but got ")
+                .endControlFlow()
+                .addStatement("return (($T) dao).getTableInfo()", ParameterizedTypeName.get(ClassName.get(BaseDaoImpl.class), t, ID))
+                .build();
+
+        TypeSpec loader = TypeSpec.classBuilder(FOREIGN_COLLECTION_LOADER.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addJavadoc("Loads foreign collections of many parents at once.\n")
+                .addField(FieldSpec.builder(TypeName.INT, "MAX_VARIABLES", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$L", MAX_VARIABLES)
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build())
+                .addMethod(load)
+                .addMethod(getTableInfo)
+                .build();
+
+        return JavaFile.builder(FOREIGN_COLLECTION_LOADER.packageName(), loader).build();
+    }
+
+    /**
+     * Generates the loaders of the foreign collections of a table, or returns null if it does not have an id or any
+     * foreign collections.
+     */
+    public JavaFile generateForeignCollections(TableBindings table) {
+        TypeName idType = table.getIdTypeName(typeUtils);
+        if (idType == null) {
+            return null;
+        }
+        ClassName className = table.getClassName();
+        ClassName collectionsName = table.getGeneratedName("$$ForeignCollections");
+        TypeName daoType = ParameterizedTypeName.get(ClassName.get(Dao.class), className, idType);
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(collectionsName.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addOriginatingElement(table.getElement())
+                .addJavadoc("Batched loaders for the foreign collections of {@link $T}\n", className)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build());
+
+        boolean hasCollections = false;
+        for (FieldBindings fieldConfig : table.getFieldConfigs()) {
+            if (!fieldConfig.isForeignCollection()) {
+                continue;
+            }
+            TypeMirror childType = getElementType(fieldConfig.getFieldType());
+            if (childType == null) {
+                continue;
+            }
+            TypeName childName = TypeName.get(typeUtils.erasure(childType));
+            String fieldName = fieldConfig.getFieldName();
+            builder.addMethod(MethodSpec.methodBuilder("load" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1))
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .returns(ParameterizedTypeName.get(ClassName.get(Map.class), idType, ParameterizedTypeName.get(ClassName.get(List.class), childName)))
+                    .addParameter(daoType, "dao")
+                    .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class), className), "parents")
+                    .addException(SQLException.class)
+                    .addStatement("return $T.load(dao, parents, $S, $T.class, $S, $S, $L)", FOREIGN_COLLECTION_LOADER, fieldName, childName,
+                            fieldConfig.getForeignCollectionForeignFieldName(), fieldConfig.getForeignCollectionOrderColumnName(),
+                            fieldConfig.isForeignCollectionOrderAscending())
+                    .build());
+            hasCollections = true;
+        }
+
+        if (!hasCollections) {
+            return null;
+        }
+        return JavaFile.builder(collectionsName.packageName(), builder.build()).build();
+    }
+
+    /**
+     * Returns the element type of a ForeignCollection or Collection, or null if it is a raw type.
+     */
+    private static TypeMirror getElementType(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+        if (typeArguments.size() != 1 || typeArguments.get(0).getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return typeArguments.get(0);
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Koen Vlaswinkel
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.BaseDaoImpl;
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.stmt.QueryBuilder;
+import com.j256.ormlite.stmt.SelectArg;
+import com.j256.ormlite.table.TableInfo;
+import com.squareup.javapoet.*;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the $$Lazy classes of tables with {@link Lazy} fields and the LazyLoader class they use. The queries of a
+ * $$Lazy class select every column except the lazy ones, which are loaded by id when they are needed.
+ */
+public class LazyGenerator {
+    public static final ClassName LAZY_LOADER = ClassName.get("com.koenv.ormlite.processor", "LazyLoader");
+
+    /**
+     * The maximum number of entities per prefetch query. SQLite does not allow more than 999 variables in a statement.
+     */
+    private static final int MAX_VARIABLES = 999;
+
+    private static final TypeVariableName T = TypeVariableName.get("T");
+    private static final TypeVariableName ID = TypeVariableName.get("ID");
+
+    private final Types typeUtils;
+    private final Messager messager;
+
+    public LazyGenerator(Types typeUtils, Messager messager) {
+        this.typeUtils = typeUtils;
+        this.messager = messager;
+    }
+
+    public JavaFile generateLazyLoader() {
+        TypeName daoType = ParameterizedTypeName.get(ClassName.get(Dao.class), T, ID);
+        TypeName tableInfoType = ParameterizedTypeName.get(ClassName.get(TableInfo.class), T, ID);
+        TypeName queryBuilderType = ParameterizedTypeName.get(ClassName.get(QueryBuilder.class), T, ID);
+        TypeName listOfT = ParameterizedTypeName.get(ClassName.get(List.class), T);
+        TypeName listOfObject = ParameterizedTypeName.get(List.class, Object.class);
+
+        MethodSpec getFieldType = MethodSpec.methodBuilder("getFieldType")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(FieldType.class)
+                .addParameter(ParameterizedTypeName.get(ClassName.get(TableInfo.class), WildcardTypeName.subtypeOf(Object.class), WildcardTypeName.subtypeOf(Object.class)), "tableInfo")
+                .addParameter(String.class, "fieldName")
+                .addException(SQLException.class)
+                .beginControlFlow("for ($T fieldType : tableInfo.getFieldTypes())", FieldType.class)
+                .beginControlFlow("if (fieldType.getFieldName().equals(fieldName))")
+                .addStatement("return fieldType")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("throw new $T($S + fieldName + $S + tableInfo.getDataClass())", SQLException.class, "Could not find field ", " in ")
+                .build();
+
+        MethodSpec getTableInfo = MethodSpec.methodBuilder("getTableInfo")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addTypeVariable(T)
+                .addTypeVariable(ID)
+                .returns(tableInfoType)
+                .addParameter(daoType, "dao")
+                .beginControlFlow("if (!(dao instanceof $T))", BaseDaoImpl.class)
+                .addStatement("throw new $T($S + dao.getClass())", IllegalArgumentException.class, "Lazy loading requires a BaseDaoImpl, but got ")
+                .endControlFlow()
+                .addStatement("return (($T) dao).getTableInfo()", ParameterizedTypeName.get(ClassName.get(BaseDaoImpl.class), T, ID))
+                .build();
+
+        MethodSpec queryBuilder = MethodSpec.methodBuilder("queryBuilder")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addTypeVariable(T)
+                .addTypeVariable(ID)
+                .addJavadoc("Returns a query builder which selects every column, except the columns of the lazy fields.\n")
+                .returns(queryBuilderType)
+                .addParameter(daoType, "dao")
+                .addParameter(String[].class, "lazyFieldNames")
+                .varargs()
+                .addStatement("$T lazy = $T.asList(lazyFieldNames)", ParameterizedTypeName.get(List.class, String.class), Arrays.class)
+                .addStatement("$T columns = new $T()", ParameterizedTypeName.get(List.class, String.class), ParameterizedTypeName.get(ArrayList.class, String.class))
+                .beginControlFlow("for ($T fieldType : $N(dao).getFieldTypes())", FieldType.class, getTableInfo)
+                .beginControlFlow("if (!fieldType.isForeignCollection() && !lazy.contains(fieldType.getFieldName()))")
+                .addStatement("columns.add(fieldType.getColumnName())")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("$T queryBuilder = dao.queryBuilder()", queryBuilderType)
+                .addStatement("queryBuilder.selectColumns(columns)")
+                .addStatement("return queryBuilder")
+                .build();
+
+        MethodSpec load = MethodSpec.methodBuilder("load")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addTypeVariable(T)
+                .addTypeVariable(ID)
+                .addJavadoc("Returns the value of a lazy field. If the field is null, the column is queried by the id of the entity\n"
+                        + "and assigned to the field, so a field which is null in the database is queried every time.\n")
+                .returns(Object.class)
+                .addParameter(daoType, "dao")
+                .addParameter(T, "data")
+                .addParameter(String.class, "fieldName")
+                .addException(SQLException.class)
+                .addStatement("$T tableInfo = $N(dao)", tableInfoType, getTableInfo)
+                .addStatement("$T fieldType = $N(tableInfo, fieldName)", FieldType.class, getFieldType)
+                .addStatement("$T value = fieldType.extractJavaFieldValue(data)", Object.class)
+                .beginControlFlow("if (value != null)")
+                .addStatement("return value")
+                .endControlFlow()
+                .addStatement("$T idField = tableInfo.getIdField()", FieldType.class)
+                .addStatement("$T queryBuilder = dao.queryBuilder()", queryBuilderType)
+                .addStatement("queryBuilder.selectColumns(fieldType.getColumnName())")
+                .addStatement("queryBuilder.where().eq(idField.getColumnName(), new $T(idField.extractJavaFieldValue(data)))", SelectArg.class)
+                .addStatement("$T loaded = queryBuilder.queryForFirst()", T)
+                .beginControlFlow("if (loaded == null)")
+                .addStatement("return null")
+                .endControlFlow()
+                .addStatement("value = fieldType.extractJavaFieldValue(loaded)")
+                .addStatement("fieldType.assignField(data, value, false, null)")
+                .addStatement("return value")
+                .build();
+
+        MethodSpec prefetch = MethodSpec.methodBuilder("prefetch")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addTypeVariable(T)
+                .addTypeVariable(ID)
+                .addJavadoc("Loads a lazy field of all entities where it is null, with one query per $L entities.\n", MAX_VARIABLES)
+                .addParameter(daoType, "dao")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class), T), "entities")
+                .addParameter(String.class, "fieldName")
+                .addException(SQLException.class)
+                .addStatement("$T tableInfo = $N(dao)", tableInfoType, getTableInfo)
+                .addStatement("$T fieldType = $N(tableInfo, fieldName)", FieldType.class, getFieldType)
+                .addStatement("$T idField = tableInfo.getIdField()", FieldType.class)
+                .addStatement("$T pending = new $T()",
+                        ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(Object.class), listOfT),
+                        ParameterizedTypeName.get(ClassName.get(HashMap.class), ClassName.get(Object.class), listOfT))
+                .beginControlFlow("for ($T data : entities)", T)
+                .beginControlFlow("if (fieldType.extractJavaFieldValue(data) != null)")
+                .addStatement("continue")
+                .endControlFlow()
+                .addStatement("$T id = idField.extractJavaFieldValue(data)", Object.class)
+                .addStatement("$T sameId = pending.get(id)", listOfT)
+                .beginControlFlow("if (sameId == null)")
+                .addStatement("sameId = new $T()", ParameterizedTypeName.get(ClassName.get(ArrayList.class), T))
+                .addStatement("pending.put(id, sameId)")
+                .endControlFlow()
+                .addStatement("sameId.add(data)")
+                .endControlFlow()
+                .addStatement("$T ids = new $T(pending.keySet())", listOfObject, ParameterizedTypeName.get(ArrayList.class, Object.class))
+                .beginControlFlow("for (int start = 0; start < ids.size(); start += MAX_VARIABLES)")
+                .addStatement("$T chunk = ids.subList(start, $T.min(start + MAX_VARIABLES, ids.size()))", listOfObject, Math.class)
+                .addStatement("$T[] args = new $T[chunk.size()]", SelectArg.class, SelectArg.class)
+                .beginControlFlow("for (int i = 0; i < args.length; i++)")
+                .addStatement("args[i] = new $T(chunk.get(i))", SelectArg.class)
+                .endControlFlow()
+                .addStatement("$T queryBuilder = dao.queryBuilder()", queryBuilderType)
+                .addStatement("queryBuilder.selectColumns(fieldType.getColumnName())")
+                .addStatement("queryBuilder.where().in(idField.getColumnName(), ($T[]) args)", Object.class)
+                .beginControlFlow("for ($T loaded : queryBuilder.query())", T)
+                .addStatement("$T value = fieldType.extractJavaFieldValue(loaded)", Object.class)
+                .beginControlFlow("for ($T data : pending.get(idField.extractJavaFieldValue(loaded)))", T)
+                .addStatement("fieldType.assignField(data, value, false, null)")
+                .endControlFlow()
+                .endControlFlow()
+                .endControlFlow()
+                .build();
+
+        TypeSpec loader = TypeSpec.classBuilder(LAZY_LOADER.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addJavadoc("Queries entities without their lazy fields and loads the lazy fields by id.\n")
+                .addField(FieldSpec.builder(TypeName.INT, "MAX_VARIABLES", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$L", MAX_VARIABLES)
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build())
+                .addMethod(queryBuilder)
+                .addMethod(load)
+                .addMethod(prefetch)
+                .addMethod(getFieldType)
+                .addMethod(getTableInfo)
+                .build();
+
+        return JavaFile.builder(LAZY_LOADER.packageName(), loader).build();
+    }
+
+    /**
+     * Generates the lazy class of a table, or returns null if it does not have any lazy fields.
+     */
+    public JavaFile generateLazy(TableBindings table) {
+        List<FieldBindings> lazyFields = new ArrayList<FieldBindings>();
+        for (FieldBindings fieldConfig : table.getFieldConfigs()) {
+            if (fieldConfig.isLazy()) {
+                lazyFields.add(fieldConfig);
+            }
+        }
+        if (lazyFields.isEmpty()) {
+            return null;
+        }
+        TypeName idType = table.getIdTypeName(typeUtils);
+        if (idType == null) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "A table with @Lazy fields needs an id to load them by", table.getElement());
+            return null;
+        }
+
+        ClassName className = table.getClassName();
+        ClassName lazyName = table.getGeneratedName("$$Lazy");
+        TypeName daoType = ParameterizedTypeName.get(ClassName.get(Dao.class), className, idType);
+        TypeName queryBuilderType = ParameterizedTypeName.get(ClassName.get(QueryBuilder.class), className, idType);
+
+        StringBuilder lazyFieldNames = new StringBuilder();
+        for (FieldBindings fieldConfig : lazyFields) {
+            lazyFieldNames.append(lazyFieldNames.length() == 0 ? "" : ", ").append('"').append(fieldConfig.getFieldName()).append('"');
+        }
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(lazyName.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addOriginatingElement(table.getElement())
+                .addJavadoc("Queries {@link $T} without its lazy fields and loads them when they are needed. Update the\n"
+                        + "entities with a change tracker, {@code Dao.update} would clear the lazy columns which were not loaded.\n", className)
+                .addField(FieldSpec.builder(String[].class, "LAZY_FIELD_NAMES", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("{$L}", lazyFieldNames)
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build());
+
+        MethodSpec queryBuilder = MethodSpec.methodBuilder("queryBuilder")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Returns a query builder which selects every column, except the lazy ones.\n")
+                .returns(queryBuilderType)
+                .addParameter(daoType, "dao")
+                .addStatement("return $T.queryBuilder(dao, LAZY_FIELD_NAMES)", LAZY_LOADER)
+                .build();
+        builder.addMethod(queryBuilder);
+
+        builder.addMethod(MethodSpec.methodBuilder("queryForAll")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), className))
+                .addParameter(daoType, "dao")
+                .addException(SQLException.class)
+                .addStatement("return $N(dao).query()", queryBuilder)
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("queryForId")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(className)
+                .addParameter(daoType, "dao")
+                .addParameter(idType, "id")
+                .addException(SQLException.class)
+                .addStatement("$T queryBuilder = $N(dao)", queryBuilderType, queryBuilder)
+                .addStatement("queryBuilder.where().idEq(id)")
+                .addStatement("return queryBuilder.queryForFirst()")
+                .build());
+
+        for (FieldBindings fieldConfig : lazyFields) {
+            String fieldName = fieldConfig.getFieldName();
+            String capitalized = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+            TypeName fieldType = TypeName.get(fieldConfig.getFieldType());
+            builder.addMethod(MethodSpec.methodBuilder("get" + capitalized)
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .returns(fieldType)
+                    .addParameter(daoType, "dao")
+                    .addParameter(className, "data")
+                    .addException(SQLException.class)
+                    .addStatement("return ($T) $T.load(dao, data, $S)", fieldType, LAZY_LOADER, fieldName)
+                    .build());
+            builder.addMethod(MethodSpec.methodBuilder("prefetch" + capitalized)
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .addParameter(daoType, "dao")
+                    .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class), className), "entities")
+                    .addException(SQLException.class)
+                    .addStatement("$T.prefetch(dao, entities, $S)", LAZY_LOADER, fieldName)
+                    .build());
+        }
+
+        return JavaFile.builder(lazyName.packageName(), builder.build()).build();
+    }
+}
@@ -0,0 +1,490 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Koen Vlaswinkel
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.db.DatabaseType;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.misc.TransactionManager;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.table.DatabaseTableConfig;
+import com.j256.ormlite.table.TableUtils;
+import com.squareup.javapoet.*;
+
+import javax.lang.model.element.Modifier;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Generates the OrmLiteMigrations class, which migrates the schema of previous versions to the current schema, and
+ * the SchemaMigration class it uses. A table is only rebuilt if SQLite can not alter it: if it gets a column that
+ * can not be added, or if a column is changed or removed.
+ */
+public class MigrationGenerator {
+    public static final ClassName SCHEMA_MIGRATION = ClassName.get("com.koenv.ormlite.processor", "SchemaMigration");
+    public static final ClassName ORM_LITE_MIGRATIONS = ClassName.get("com.koenv.ormlite.processor", "OrmLiteMigrations");
+
+    /**
+     * The suffix of the name a table is renamed to while it is rebuilt.
+     */
+    private static final String REBUILD_SUFFIX = "_old";
+
+    public JavaFile generateSchemaMigration() {
+        TypeVariableName t = TypeVariableName.get("T");
+
+        MethodSpec entityName = MethodSpec.methodBuilder("appendEntityName")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(StringBuilder.class, "sb")
+                .addParameter(DatabaseType.class, "databaseType")
+                .addParameter(String.class, "name")
+                .beginControlFlow("if (databaseType.isEntityNamesMustBeUpCase())")
+                .addStatement("name = name.toUpperCase()")
+                .endControlFlow()
+                .addStatement("databaseType.appendEscapedEntityName(sb, name)")
+                .build();
+
+        MethodSpec execute = MethodSpec.methodBuilder("execute")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(ParameterizedTypeName.get(List.class, String.class), "statements")
+                .addException(SQLException.class)
+                .addStatement("$T connection = connectionSource.getReadWriteConnection()", DatabaseConnection.class)
+                .beginControlFlow("try")
+                .beginControlFlow("for (String statement : statements)")
+                .addStatement("connection.executeStatement(statement, $T.DEFAULT_RESULT_FLAGS)", DatabaseConnection.class)
+                .endControlFlow()
+                .nextControlFlow("finally")
+                .addStatement("connectionSource.releaseConnection(connection)")
+                .endControlFlow()
+                .build();
+
+        MethodSpec createTable = MethodSpec.methodBuilder("createTable")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addTypeVariable(t)
+                .addJavadoc("Creates a table and its indexes.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(DatabaseTableConfig.class), t), "config")
+                .addException(SQLException.class)
+                .beginControlFlow("if (connectionSource.getDatabaseType().isEntityNamesMustBeUpCase())")
+                .addStatement("config.setTableName(config.getTableName().toUpperCase())")
+                .endControlFlow()
+                .addStatement("$T.createTable(connectionSource, config)", TableUtils.class)
+                .build();
+
+        StringBuilder triggerSuffixes = new StringBuilder();
+        for (String suffix : SearchGenerator.TRIGGER_SUFFIXES) {
+            triggerSuffixes.append(triggerSuffixes.length() == 0 ? "" : ", ").append('"').append(suffix).append('"');
+        }
+        MethodSpec dropSearchTable = MethodSpec.methodBuilder("dropSearchTable")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Drops the full-text search table of a table and the triggers which fill it, of either module, if they\n"
+                        + "exist.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(String.class, "tableName")
+                .addException(SQLException.class)
+                .addStatement("$T databaseType = connectionSource.getDatabaseType()", DatabaseType.class)
+                .addStatement("$T statements = new $T()", ParameterizedTypeName.get(List.class, String.class), ParameterizedTypeName.get(ArrayList.class, String.class))
+                .beginControlFlow("for (String suffix : new String[]{$L})", triggerSuffixes)
+                .addStatement("$T sb = new $T($S)", StringBuilder.class, StringBuilder.class, "DROP TRIGGER IF EXISTS ")
+                .addStatement("$N(sb, databaseType, tableName + $S + suffix)", entityName, SearchGenerator.SEARCH_SUFFIX)
+                .addStatement("statements.add(sb.toString())")
+                .endControlFlow()
+                .addStatement("$T sb = new $T($S)", StringBuilder.class, StringBuilder.class, "DROP TABLE IF EXISTS ")
+                .addStatement("$N(sb, databaseType, tableName + $S)", entityName, SearchGenerator.SEARCH_SUFFIX)
+                .addStatement("statements.add(sb.toString())")
+                .addStatement("$N(connectionSource, statements)", execute)
+                .build();
+
+        MethodSpec dropTable = MethodSpec.methodBuilder("dropTable")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Drops a table which is no longer used, and its full-text search table if it has one.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(String.class, "tableName")
+                .addException(SQLException.class)
+                .addStatement("$N(connectionSource, tableName)", dropSearchTable)
+                .addStatement("$T sb = new $T($S)", StringBuilder.class, StringBuilder.class, "DROP TABLE IF EXISTS ")
+                .addStatement("$N(sb, connectionSource.getDatabaseType(), tableName)", entityName)
+                .addStatement("$N(connectionSource, $T.singletonList(sb.toString()))", execute, Collections.class)
+                .build();
+
+        MethodSpec addColumn = MethodSpec.methodBuilder("addColumn")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addTypeVariable(t)
+                .addJavadoc("Adds the column of a field to a table, with the definition OrmLite would create it with.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(DatabaseTableConfig.class), t), "config")
+                .addParameter(String.class, "fieldName")
+                .addException(SQLException.class)
+                .addStatement("$T databaseType = connectionSource.getDatabaseType()", DatabaseType.class)
+                .addStatement("config.extractFieldTypes(connectionSource)")
+                .addStatement("$T fieldType = null", FieldType.class)
+                .beginControlFlow("for ($T type : config.getFieldTypes(databaseType))", FieldType.class)
+                .beginControlFlow("if (type.getFieldName().equals(fieldName))")
+                .addStatement("fieldType = type")
+                .endControlFlow()
+                .endControlFlow()
+                .beginControlFlow("if (fieldType == null)")
+                .addStatement("throw new $T($S + fieldName + $S + config.getDataClass())", SQLException.class, "Could not find field ", " in ")
+                .endControlFlow()
+                .addStatement("$T sb = new $T($S)", StringBuilder.class, StringBuilder.class, "ALTER TABLE ")
+                .addStatement("$N(sb, databaseType, config.getTableName())", entityName)
+                .addStatement("sb.append($S)", " ADD COLUMN ")
+                .addStatement("$T statementsBefore = new $T()", ParameterizedTypeName.get(List.class, String.class), ParameterizedTypeName.get(ArrayList.class, String.class))
+                .addStatement("$T statementsAfter = new $T()", ParameterizedTypeName.get(List.class, String.class), ParameterizedTypeName.get(ArrayList.class, String.class))
+                .beginControlFlow("if (fieldType.getColumnDefinition() == null)")
+                .addCode("// the additional arguments are table constraints, which the processor does not add columns with\n")
+                .addStatement("databaseType.appendColumnArg(config.getTableName(), sb, fieldType, new $T(), statementsBefore, statementsAfter, new $T())",
+                        ParameterizedTypeName.get(ArrayList.class, String.class), ParameterizedTypeName.get(ArrayList.class, String.class))
+                .nextControlFlow("else")
+                .addStatement("databaseType.appendEscapedEntityName(sb, fieldType.getColumnName())")
+                .addStatement("sb.append(' ').append(fieldType.getColumnDefinition())")
+                .endControlFlow()
+                .addStatement("$T statements = new $T(statementsBefore)", ParameterizedTypeName.get(List.class, String.class), ParameterizedTypeName.get(ArrayList.class, String.class))
+                .addStatement("statements.add(sb.toString())")
+                .addStatement("statements.addAll(statementsAfter)")
+                .addStatement("$N(connectionSource, statements)", execute)
+                .build();
+
+        MethodSpec createIndex = MethodSpec.methodBuilder("createIndex")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Creates an index on the columns of a table.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(String.class, "tableName")
+                .addParameter(String.class, "indexName")
+                .addParameter(TypeName.BOOLEAN, "unique")
+                .addParameter(String[].class, "columnNames")
+                .varargs()
+                .addException(SQLException.class)
+                .addStatement("$T databaseType = connectionSource.getDatabaseType()", DatabaseType.class)
+                .addStatement("$T sb = new $T(unique ? $S : $S)", StringBuilder.class, StringBuilder.class, "CREATE UNIQUE INDEX ", "CREATE INDEX ")
+                .addStatement("$N(sb, databaseType, indexName)", entityName)
+                .addStatement("sb.append($S)", " ON ")
+                .addStatement("$N(sb, databaseType, tableName)", entityName)
+                .addStatement("sb.append($S)", " (")
+                .beginControlFlow("for (int i = 0; i < columnNames.length; i++)")
+                .addStatement("sb.append(i == 0 ? $S : $S)", "", ", ")
+                .addStatement("$N(sb, databaseType, columnNames[i])", entityName)
+                .endControlFlow()
+                .addStatement("sb.append(')')")
+                .addStatement("$N(connectionSource, $T.singletonList(sb.toString()))", execute, Collections.class)
+                .build();
+
+        MethodSpec dropIndex = MethodSpec.methodBuilder("dropIndex")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Drops an index which is no longer used.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(String.class, "indexName")
+                .addException(SQLException.class)
+                .addStatement("$T sb = new $T($S)", StringBuilder.class, StringBuilder.class, "DROP INDEX IF EXISTS ")
+                .addStatement("$N(sb, connectionSource.getDatabaseType(), indexName)", entityName)
+                .addStatement("$N(connectionSource, $T.singletonList(sb.toString()))", execute, Collections.class)
+                .build();
+
+        MethodSpec startRebuild = MethodSpec.methodBuilder("startRebuild")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Renames a table before it is created again, so its rows can be copied by {@link #finishRebuild}. Its\n"
+                        + "indexes are dropped, because they keep their names when the table is renamed.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(String.class, "tableName")
+                .addParameter(String[].class, "indexNames")
+                .varargs()
+                .addException(SQLException.class)
+                .beginControlFlow("for (String indexName : indexNames)")
+                .addStatement("$N(connectionSource, indexName)", dropIndex)
+                .endControlFlow()
+                .addStatement("$T databaseType = connectionSource.getDatabaseType()", DatabaseType.class)
+                .addStatement("$T sb = new $T($S)", StringBuilder.class, StringBuilder.class, "ALTER TABLE ")
+                .addStatement("$N(sb, databaseType, tableName)", entityName)
+                .addStatement("sb.append($S)", " RENAME TO ")
+                .addStatement("$N(sb, databaseType, tableName + $S)", entityName, REBUILD_SUFFIX)
+                .addStatement("$N(connectionSource, $T.singletonList(sb.toString()))", execute, Collections.class)
+                .build();
+
+        MethodSpec finishRebuild = MethodSpec.methodBuilder("finishRebuild")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Copies the given columns from the table renamed by {@link #startRebuild} to the new table and drops the\n"
+                        + "renamed table.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(String.class, "tableName")
+                .addParameter(String[].class, "columnNames")
+                .varargs()
+                .addException(SQLException.class)
+                .addStatement("$T databaseType = connectionSource.getDatabaseType()", DatabaseType.class)
+                .addStatement("$T columns = new $T()", StringBuilder.class, StringBuilder.class)
+                .beginControlFlow("for (int i = 0; i < columnNames.length; i++)")
+                .addStatement("columns.append(i == 0 ? $S : $S)", "", ", ")
+                .addStatement("$N(columns, databaseType, columnNames[i])", entityName)
+                .endControlFlow()
+                .addStatement("$T insert = new $T($S)", StringBuilder.class, StringBuilder.class, "INSERT INTO ")
+                .addStatement("$N(insert, databaseType, tableName)", entityName)
+                .addStatement("insert.append($S).append(columns).append($S).append(columns).append($S)", " (", ") SELECT ", " FROM ")
+                .addStatement("$N(insert, databaseType, tableName + $S)", entityName, REBUILD_SUFFIX)
+                .addStatement("$T drop = new $T($S)", StringBuilder.class, StringBuilder.class, "DROP TABLE ")
+                .addStatement("$N(drop, databaseType, tableName + $S)", entityName, REBUILD_SUFFIX)
+                .addStatement("$N(connectionSource, $T.asList(insert.toString(), drop.toString()))", execute, Arrays.class)
+                .build();
+
+        TypeSpec schemaMigration = TypeSpec.classBuilder(SCHEMA_MIGRATION.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addJavadoc("The statements of the generated migrations.\n")
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build())
+                .addMethod(createTable)
+                .addMethod(dropTable)
+                .addMethod(dropSearchTable)
+                .addMethod(addColumn)
+                .addMethod(createIndex)
+                .addMethod(dropIndex)
+                .addMethod(startRebuild)
+                .addMethod(finishRebuild)
+                .addMethod(entityName)
+                .addMethod(execute)
+                .build();
+
+        return JavaFile.builder(SCHEMA_MIGRATION.packageName(), schemaMigration).build();
+    }
+
+    /**
+     * Generates the migrations from the snapshots of previous versions to the current tables.
+     */
+    public JavaFile generateMigrations(List<TableBindings> tables, int version, Map<Integer, SchemaSnapshot> snapshots) {
+        SchemaSnapshot current = SchemaSnapshot.fromTables(tables);
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(ORM_LITE_MIGRATIONS.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addJavadoc("Generated by the OrmLite annotation processor, do not edit\n")
+                .addField(FieldSpec.builder(TypeName.INT, "SCHEMA_VERSION", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .addJavadoc("The version of the schema at compile-time\n")
+                        .initializer("$L", version)
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build());
+        for (TableBindings table : tables) {
+            builder.addOriginatingElement(table.getElement());
+        }
+
+        MethodSpec.Builder migrateBuilder = MethodSpec.methodBuilder("migrate")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Migrates the schema of the given version to the current version. Call this in the upgrade callback of\n"
+                        + "the database, before {@link OrmLiteProcessor#markSchemaCurrent}.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(TypeName.INT, "oldVersion")
+                .addException(SQLException.class)
+                .beginControlFlow("switch (oldVersion)");
+
+        for (Map.Entry<Integer, SchemaSnapshot> snapshot : snapshots.entrySet()) {
+            MethodSpec.Builder callBuilder = MethodSpec.methodBuilder("call")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(Void.class)
+                    .addException(SQLException.class);
+            addMigration(callBuilder, snapshot.getValue(), current, tables);
+            callBuilder.addStatement("return null");
+            MethodSpec step = MethodSpec.methodBuilder("migrateFrom" + snapshot.getKey())
+                    .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                    .addParameter(ConnectionSource.class, "connectionSource", Modifier.FINAL)
+                    .addException(SQLException.class)
+                    .addCode("// a failure halfway through a rebuild would otherwise leave the renamed table behind\n")
+                    .addStatement("$T.callInTransaction(connectionSource, $L)", TransactionManager.class,
+                            TypeSpec.anonymousClassBuilder("")
+                                    .superclass(ParameterizedTypeName.get(Callable.class, Void.class))
+                                    .addMethod(callBuilder.build())
+                                    .build())
+                    .build();
+            builder.addMethod(step);
+            migrateBuilder.addCode("case $L:\n$>", snapshot.getKey())
+                    .addStatement("$N(connectionSource)", step)
+                    .addStatement("break")
+                    .addCode("$<");
+        }
+
+        builder.addMethod(migrateBuilder.addCode("case SCHEMA_VERSION:\n$>")
+                .addStatement("break")
+                .addCode("$<default:\n$>")
+                .addStatement("throw new $T($S + oldVersion)", SQLException.class, "There is no schema snapshot to migrate from version ")
+                .addCode("$<")
+                .endControlFlow()
+                .build());
+
+        return JavaFile.builder(ORM_LITE_MIGRATIONS.packageName(), builder.build()).build();
+    }
+
+    private void addMigration(MethodSpec.Builder builder, SchemaSnapshot previous, SchemaSnapshot current, List<TableBindings> tables) {
+        for (TableBindings tableBindings : tables) {
+            String tableName = tableBindings.getTableName();
+            SchemaSnapshot.Table table = current.getTables().get(tableName);
+            SchemaSnapshot.Table previousTable = previous.getTables().get(tableName);
+            ClassName searchName = isSearchable(tableBindings) ? tableBindings.getGeneratedName("$$Search") : null;
+            if (previousTable == null) {
+                addCreateTable(builder, tableBindings);
+                if (searchName != null) {
+                    builder.addStatement("$T.createTable(connectionSource)", searchName);
+                }
+                continue;
+            }
+
+            Map<String, FieldBindings> fieldsByColumn = new HashMap<String, FieldBindings>();
+            for (FieldBindings fieldConfig : tableBindings.getFieldConfigs()) {
+                if (!fieldConfig.isForeignCollection()) {
+                    fieldsByColumn.put(fieldConfig.getColumnNameOrDefault(), fieldConfig);
+                }
+            }
+
+            // the search table is created and filled again if its module or columns changed, and if the table is
+            // rebuilt, because the copied rows can get other rowids. A snapshot without the search is not trusted.
+            boolean rebuild = isRebuildRequired(previousTable, table, fieldsByColumn);
+            boolean recreateSearch = rebuild || previousTable.getSearch() == null || !previousTable.getSearch().equals(table.getSearch());
+            if (recreateSearch && !"".equals(previousTable.getSearch())) {
+                addCall(builder, "dropSearchTable", Collections.singletonList(tableName));
+            }
+
+            if (rebuild) {
+                List<String> rebuildArguments = new ArrayList<String>();
+                rebuildArguments.add(tableName);
+                rebuildArguments.addAll(previousTable.getIndexes().keySet());
+                addCall(builder, "startRebuild", rebuildArguments);
+                addCreateTable(builder, tableBindings);
+                List<String> copyArguments = new ArrayList<String>();
+                copyArguments.add(tableName);
+                for (String columnName : table.getColumns().keySet()) {
+                    if (previousTable.getColumns().containsKey(columnName)) {
+                        copyArguments.add(columnName);
+                    }
+                }
+                addCall(builder, "finishRebuild", copyArguments);
+            } else {
+                addAlterTable(builder, tableBindings, previousTable, table, fieldsByColumn);
+            }
+
+            if (recreateSearch && searchName != null) {
+                builder.addStatement("$T.createTable(connectionSource)", searchName);
+            }
+        }
+        for (String tableName : previous.getTables().keySet()) {
+            if (!current.getTables().containsKey(tableName)) {
+                addCall(builder, "dropTable", Collections.singletonList(tableName));
+            }
+        }
+    }
+
+    /**
+     * Add the statements which migrate a table that does not have to be rebuilt: the changed indexes are dropped and
+     * created again and the new columns are added.
+     */
+    private static void addAlterTable(MethodSpec.Builder builder, TableBindings tableBindings, SchemaSnapshot.Table previousTable,
+                                      SchemaSnapshot.Table table, Map<String, FieldBindings> fieldsByColumn) {
+        String tableName = tableBindings.getTableName();
+        Map<String, SchemaSnapshot.Index> indexes = table.getIndexes();
+        Map<String, SchemaSnapshot.Index> previousIndexes = previousTable.getIndexes();
+        for (Map.Entry<String, SchemaSnapshot.Index> index : previousIndexes.entrySet()) {
+            if (!index.getValue().equals(indexes.get(index.getKey()))) {
+                addCall(builder, "dropIndex", Collections.singletonList(index.getKey()));
+            }
+        }
+        for (String columnName : table.getColumns().keySet()) {
+            if (!previousTable.getColumns().containsKey(columnName)) {
+                builder.addStatement("$T.addColumn(connectionSource, $T.getTableConfig(), $S)", SCHEMA_MIGRATION,
+                        tableBindings.getConfigName(), fieldsByColumn.get(columnName).getFieldName());
+            }
+        }
+        for (Map.Entry<String, SchemaSnapshot.Index> index : indexes.entrySet()) {
+            if (!index.getValue().equals(previousIndexes.get(index.getKey()))) {
+                List<Object> arguments = new ArrayList<Object>();
+                arguments.add(tableName);
+                arguments.add(index.getKey());
+                arguments.add(index.getValue().isUnique());
+                arguments.addAll(index.getValue().getColumnNames());
+                addCall(builder, "createIndex", arguments);
+            }
+        }
+    }
+
+    /**
+     * Return whether the table has to be created again, because SQLite can not make the changes with ALTER TABLE: a
+     * column is removed or changed, the storage options are changed, or a column is added that is a key, unique or
+     * not null without a default value.
+     */
+    private static boolean isRebuildRequired(SchemaSnapshot.Table previous, SchemaSnapshot.Table current, Map<String, FieldBindings> fieldsByColumn) {
+        if (!previous.getOptions().equals(current.getOptions())) {
+            return true;
+        }
+        for (Map.Entry<String, SchemaSnapshot.Column> column : previous.getColumns().entrySet()) {
+            SchemaSnapshot.Column currentColumn = current.getColumns().get(column.getKey());
+            if (currentColumn == null || !currentColumn.getDefinition().equals(column.getValue().getDefinition())) {
+                return true;
+            }
+        }
+        for (String columnName : current.getColumns().keySet()) {
+            if (previous.getColumns().containsKey(columnName)) {
+                continue;
+            }
+            FieldBindings fieldConfig = fieldsByColumn.get(columnName);
+            if (fieldConfig.isId() || fieldConfig.isGeneratedId() || fieldConfig.getGeneratedIdSequence() != null
+                    || fieldConfig.isUnique() || fieldConfig.isUniqueCombo()
+                    || (!fieldConfig.isCanBeNull() && fieldConfig.getDefaultValue() == null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSearchable(TableBindings table) {
+        for (FieldBindings fieldConfig : table.getFieldConfigs()) {
+            if (fieldConfig.getSearchModule() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addCreateTable(MethodSpec.Builder builder, TableBindings table) {
+        if (table.isWithoutRowId()) {
+            builder.addStatement("$T.createTable(connectionSource)", table.getConfigName());
+        } else {
+            builder.addStatement("$T.createTable(connectionSource, $T.getTableConfig())", SCHEMA_MIGRATION, table.getConfigName());
+        }
+    }
+
+    /**
+     * Add a statement which calls a method of SchemaMigration with the connection source and the arguments.
+     */
+    private static void addCall(MethodSpec.Builder builder, String method, List<?> arguments) {
+        StringBuilder format = new StringBuilder("$T.").append(method).append("(connectionSource");
+        List<Object> args = new ArrayList<Object>();
+        args.add(SCHEMA_MIGRATION);
+        for (Object argument : arguments) {
+            format.append(argument instanceof String ? ", $S" : ", $L");
+            args.add(argument);
+        }
+        builder.addStatement(format.append(')').toString(), args.toArray());
+    }
+}
@@ -0,0 +1,457 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Koen Vlaswinkel
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DataType;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.field.SqlType;
+import com.j256.ormlite.field.types.DateStringType;
+import com.j256.ormlite.misc.SqlExceptionUtil;
+import com.squareup.javapoet.*;
+
+import javax.lang.model.element.Modifier;
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Generates the $$Persisters classes of tables with date-string fields and the DateStringFormat and
+ * DateStringPersister classes they use. The format of a field is parsed when it is compiled, so the persister
+ * formats and parses the dates without the thread-local SimpleDateFormat OrmLite would use.
+ */
+public class PersisterGenerator {
+    public static final ClassName DATE_STRING_FORMAT = ClassName.get("com.koenv.ormlite.processor", "DateStringFormat");
+    public static final ClassName DATE_STRING_PERSISTER = ClassName.get("com.koenv.ormlite.processor", "DateStringPersister");
+
+    /**
+     * The format OrmLite uses for date-string fields without a format.
+     */
+    private static final String DEFAULT_FORMAT = "yyyy-MM-dd HH:mm:ss.SSSSSS";
+
+    private static final String[] FIELD_NAMES = {"YEAR", "MONTH", "DAY", "HOUR", "MINUTE", "SECOND", "MILLISECOND"};
+
+    private static final int YEAR = 0;
+    private static final int MONTH = 1;
+    private static final int DAY = 2;
+    private static final int HOUR = 3;
+    private static final int MINUTE = 4;
+    private static final int SECOND = 5;
+    private static final int MILLISECOND = 6;
+
+    /**
+     * The first instant of the Gregorian calendar, SimpleDateFormat uses the Julian calendar before it.
+     */
+    private static final long GREGORIAN_CUTOVER = -12219292800000L;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    public JavaFile generateDateStringFormat() {
+        TypeSpec.Builder builder = TypeSpec.classBuilder(DATE_STRING_FORMAT.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addJavadoc("Formats and parses dates with a fixed-width pattern which was parsed at compile time. The pattern is a\n"
+                        + "template, in which every field has an offset and a length. Instances are immutable and can be shared by\n"
+                        + "threads. Dates the template cannot hold are handled by a {@link $T}.\n", SimpleDateFormat.class);
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            builder.addField(FieldSpec.builder(int.class, FIELD_NAMES[i], Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$L", i)
+                    .build());
+        }
+        builder.addField(FieldSpec.builder(long.class, "MILLIS_PER_DAY", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$LL", MILLIS_PER_DAY)
+                .build());
+        builder.addField(FieldSpec.builder(long.class, "GREGORIAN_CUTOVER", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$LL", GREGORIAN_CUTOVER)
+                .build());
+        builder.addField(FieldSpec.builder(int[].class, "POWERS_OF_TEN", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("{1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000}")
+                .build());
+        builder.addField(String.class, "pattern", Modifier.PRIVATE, Modifier.FINAL);
+        builder.addField(char[].class, "template", Modifier.PRIVATE, Modifier.FINAL);
+        builder.addField(boolean[].class, "literal", Modifier.PRIVATE, Modifier.FINAL);
+        builder.addField(int[].class, "fields", Modifier.PRIVATE, Modifier.FINAL);
+        builder.addField(TimeZone.class, "timeZone", Modifier.PRIVATE, Modifier.FINAL);
+
+        builder.addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addJavadoc("@param pattern the {@link $T} pattern, which is used for the dates the template cannot hold\n"
+                        + "@param template the pattern with a zero for every digit of a field\n"
+                        + "@param fields the field, offset and length of every field in the template\n", SimpleDateFormat.class)
+                .addParameter(String.class, "pattern")
+                .addParameter(String.class, "template")
+                .addParameter(int[].class, "fields")
+                .varargs()
+                .addStatement("this.pattern = pattern")
+                .addStatement("this.template = template.toCharArray()")
+                .addStatement("this.fields = fields")
+                .addStatement("literal = new boolean[this.template.length]")
+                .addStatement("$T.fill(literal, true)", Arrays.class)
+                .beginControlFlow("for (int i = 0; i < fields.length; i += 3)")
+                .addStatement("$T.fill(literal, fields[i + 1], fields[i + 1] + fields[i + 2], false)", Arrays.class)
+                .endControlFlow()
+                .addStatement("timeZone = $T.getDefault()", TimeZone.class)
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("getPattern")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(String.class)
+                .addStatement("return pattern")
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("newDateFormat")
+                .addModifiers(Modifier.PRIVATE)
+                .returns(SimpleDateFormat.class)
+                .addStatement("$T dateFormat = new $T(pattern)", SimpleDateFormat.class, SimpleDateFormat.class)
+                .addStatement("dateFormat.setTimeZone(timeZone)")
+                .addStatement("return dateFormat")
+                .build());
+
+        MethodSpec.Builder formatBuilder = MethodSpec.methodBuilder("format")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(String.class)
+                .addParameter(Date.class, "date")
+                .addStatement("long millis = date.getTime()")
+                .addStatement("long local = millis + timeZone.getOffset(millis)")
+                .beginControlFlow("if (local < GREGORIAN_CUTOVER)")
+                .addStatement("return newDateFormat().format(date)")
+                .endControlFlow()
+                .addStatement("long days = local / MILLIS_PER_DAY")
+                .addStatement("int millisOfDay = (int) (local - days * MILLIS_PER_DAY)")
+                .beginControlFlow("if (millisOfDay < 0)")
+                .addStatement("days--")
+                .addStatement("millisOfDay += MILLIS_PER_DAY")
+                .endControlFlow()
+                .addCode("// the civil date of a day since 1970-01-01, counted in eras of 400 years from 0000-03-01\n")
+                .addStatement("long shifted = days + 719468")
+                .addStatement("long era = shifted / 146097")
+                .addStatement("int dayOfEra = (int) (shifted - era * 146097)")
+                .addStatement("int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365")
+                .addStatement("int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100)")
+                .addStatement("int shiftedMonth = (5 * dayOfYear + 2) / 153")
+                .addStatement("int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1")
+                .addStatement("int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9")
+                .addStatement("long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0)")
+                .addStatement("char[] chars = template.clone()")
+                .beginControlFlow("for (int i = 0; i < fields.length; i += 3)")
+                .addStatement("long value")
+                .beginControlFlow("switch (fields[i])");
+        String[] formatValues = {"year", "month", "day", "millisOfDay / 3600000", "millisOfDay / 60000 % 60", "millisOfDay / 1000 % 60", "millisOfDay % 1000"};
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            formatBuilder.addCode(i == MILLISECOND ? "default:\n$>" : "case " + FIELD_NAMES[i] + ":\n$>")
+                    .addStatement("value = " + formatValues[i])
+                    .addStatement("break")
+                    .addCode("$<");
+        }
+        formatBuilder.endControlFlow()
+                .addStatement("int offset = fields[i + 1]")
+                .addStatement("int length = fields[i + 2]")
+                .beginControlFlow("if (value >= POWERS_OF_TEN[length])")
+                .addStatement("return newDateFormat().format(date)")
+                .endControlFlow()
+                .beginControlFlow("for (int j = offset + length - 1; j >= offset; j--)")
+                .addStatement("chars[j] = (char) ('0' + value % 10)")
+                .addStatement("value /= 10")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return new String(chars)");
+        builder.addMethod(formatBuilder.build());
+
+        MethodSpec.Builder parseBuilder = MethodSpec.methodBuilder("parse")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(Date.class)
+                .addParameter(String.class, "value")
+                .addException(ParseException.class)
+                .beginControlFlow("if (value.length() != template.length)")
+                .addStatement("return newDateFormat().parse(value)")
+                .endControlFlow()
+                .beginControlFlow("for (int i = 0; i < template.length; i++)")
+                .beginControlFlow("if (literal[i] && value.charAt(i) != template[i])")
+                .addStatement("return newDateFormat().parse(value)")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("int year = 1970")
+                .addStatement("int month = 1")
+                .addStatement("int day = 1")
+                .addStatement("long millisOfDay = 0")
+                .beginControlFlow("for (int i = 0; i < fields.length; i += 3)")
+                .addStatement("int number = 0")
+                .beginControlFlow("for (int j = fields[i + 1]; j < fields[i + 1] + fields[i + 2]; j++)")
+                .addStatement("char c = value.charAt(j)")
+                .beginControlFlow("if (c < '0' || c > '9')")
+                .addStatement("return newDateFormat().parse(value)")
+                .endControlFlow()
+                .addStatement("number = number * 10 + c - '0'")
+                .endControlFlow()
+                .beginControlFlow("switch (fields[i])");
+        String[] parseStatements = {"year = number", "month = number", "day = number", "millisOfDay += number * 3600000L",
+                "millisOfDay += number * 60000L", "millisOfDay += number * 1000L", "millisOfDay += number"};
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            parseBuilder.addCode(i == MILLISECOND ? "default:\n$>" : "case " + FIELD_NAMES[i] + ":\n$>")
+                    .addStatement(parseStatements[i])
+                    .addStatement("break")
+                    .addCode("$<");
+        }
+        parseBuilder.endControlFlow()
+                .endControlFlow()
+                .beginControlFlow("if (month < 1 || month > 12 || year < 1583)")
+                .addStatement("return newDateFormat().parse(value)")
+                .endControlFlow()
+                .addCode("// the days since 1970-01-01 of a civil date, the inverse of format\n")
+                .addStatement("int shiftedYear = month <= 2 ? year - 1 : year")
+                .addStatement("int era = shiftedYear / 400")
+                .addStatement("int yearOfEra = shiftedYear - era * 400")
+                .addStatement("int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1")
+                .addStatement("int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear")
+                .addStatement("long days = era * 146097L + dayOfEra - 719468")
+                .addStatement("long local = days * MILLIS_PER_DAY + millisOfDay")
+                .addStatement("int offset = timeZone.getOffset(local - timeZone.getRawOffset())")
+                .addStatement("long millis = local - offset")
+                .addCode("// near an offset change a local time can have no or two instants, leave those to the calendar\n")
+                .beginControlFlow("if (timeZone.getOffset(millis - MILLIS_PER_DAY) != offset || timeZone.getOffset(millis) != offset\n$>$>|| timeZone.getOffset(millis + MILLIS_PER_DAY) != offset$<$<)")
+                .addStatement("return newDateFormat().parse(value)")
+                .endControlFlow()
+                .addStatement("return new Date(millis)");
+        builder.addMethod(parseBuilder.build());
+
+        return JavaFile.builder(DATE_STRING_FORMAT.packageName(), builder.build()).build();
+    }
+
+    public JavaFile generateDateStringPersister() {
+        TypeSpec persister = TypeSpec.classBuilder(DATE_STRING_PERSISTER.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                .superclass(DateStringType.class)
+                .addJavadoc("The base class of the generated date-string persisters, which convert dates with a {@link $T}\n"
+                        + "instead of a thread-local {@link $T}.\n", DATE_STRING_FORMAT, SimpleDateFormat.class)
+                .addField(DATE_STRING_FORMAT, "format", Modifier.PRIVATE, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PROTECTED)
+                        .addParameter(DATE_STRING_FORMAT, "format")
+                        .addStatement("super($T.STRING, new Class<?>[0])", SqlType.class)
+                        .addStatement("this.format = format")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("makeConfigObject")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(Object.class)
+                        .addParameter(FieldType.class, "fieldType")
+                        .addCode("// the format is compiled, so the field does not need a thread-local date format\n")
+                        .addStatement("return null")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("parseDefaultString")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(Object.class)
+                        .addParameter(FieldType.class, "fieldType")
+                        .addParameter(String.class, "defaultStr")
+                        .addException(SQLException.class)
+                        .beginControlFlow("try")
+                        .addStatement("return format.format(format.parse(defaultStr))")
+                        .addCode("$<} catch ($T e) {\n$>", ParseException.class)
+                        .addStatement("throw $T.create($S + fieldType + $S + defaultStr + $S + format.getPattern() + $S, e)", SqlExceptionUtil.class,
+                                "Problems with field ", " parsing default date-string '", "' using '", "'")
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("sqlArgToJava")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(Object.class)
+                        .addParameter(FieldType.class, "fieldType")
+                        .addParameter(Object.class, "sqlArg")
+                        .addParameter(int.class, "columnPos")
+                        .addException(SQLException.class)
+                        .beginControlFlow("try")
+                        .addStatement("return format.parse((String) sqlArg)")
+                        .addCode("$<} catch ($T e) {\n$>", ParseException.class)
+                        .addStatement("throw $T.create($S + columnPos + $S + sqlArg + $S + format.getPattern() + $S, e)", SqlExceptionUtil.class,
+                                "Problems with column ", " parsing date-string '", "' using '", "'")
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("javaToSqlArg")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(Object.class)
+                        .addParameter(FieldType.class, "fieldType")
+                        .addParameter(Object.class, "javaObject")
+                        .addStatement("return format.format(($T) javaObject)", Date.class)
+                        .build())
+                .build();
+        return JavaFile.builder(DATE_STRING_PERSISTER.packageName(), persister).build();
+    }
+
+    public JavaFile generatePersisters(TableBindings table) {
+        ClassName persistersName = table.getGeneratedName("$$Persisters");
+        TypeSpec.Builder builder = TypeSpec.classBuilder(persistersName.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addOriginatingElement(table.getElement())
+                .addJavadoc("The persisters of the date-string fields of {@link $T}.\n", table.getClassName())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build());
+        boolean empty = true;
+        for (FieldBindings fieldConfig : table.getFieldConfigs()) {
+            ClassName persisterName = getPersisterName(table, fieldConfig);
+            if (persisterName != null) {
+                builder.addType(generatePersister(persisterName, getPattern(fieldConfig)));
+                empty = false;
+            }
+        }
+        if (empty) {
+            return null;
+        }
+        return JavaFile.builder(persistersName.packageName(), builder.build()).build();
+    }
+
+    private TypeSpec generatePersister(ClassName persisterName, String pattern) {
+        List<Integer> fields = new ArrayList<Integer>();
+        String template = compile(pattern, fields);
+        StringBuilder format = new StringBuilder("super(new $T($S, $S");
+        List<Object> args = new ArrayList<Object>(Arrays.<Object>asList(DATE_STRING_FORMAT, pattern, template));
+        for (int i = 0; i < fields.size(); i += 3) {
+            format.append(", $T.$L, $L, $L");
+            args.addAll(Arrays.<Object>asList(DATE_STRING_FORMAT, FIELD_NAMES[fields.get(i)], fields.get(i + 1), fields.get(i + 2)));
+        }
+        format.append("))");
+
+        return TypeSpec.classBuilder(persisterName.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .superclass(DATE_STRING_PERSISTER)
+                .addField(FieldSpec.builder(persisterName, "SINGLETON", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("new $T()", persisterName)
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .addStatement(format.toString(), args.toArray())
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("getSingleton")
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                        .returns(persisterName)
+                        .addStatement("return SINGLETON")
+                        .build())
+                .build();
+    }
+
+    /**
+     * Returns the generated persister of a field, or null if OrmLite's persister is used. Only {@link Date} fields
+     * with the DATE_STRING data type, without a persister class and with a pattern of numeric fields have one.
+     */
+    public ClassName getPersisterName(TableBindings table, FieldBindings fieldConfig) {
+        if (fieldConfig.getDataType() != DataType.DATE_STRING
+                || (fieldConfig.getPersisterClass() != null && !fieldConfig.getPersisterClass().getQualifiedName().toString().equals("com.j256.ormlite.field.types.VoidType"))
+                || !TypeName.get(fieldConfig.getFieldType()).equals(ClassName.get(Date.class))
+                || compile(getPattern(fieldConfig), new ArrayList<Integer>()) == null) {
+            return null;
+        }
+        String fieldName = fieldConfig.getFieldName();
+        return table.getGeneratedName("$$Persisters").nestedClass(Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1));
+    }
+
+    private static String getPattern(FieldBindings fieldConfig) {
+        return fieldConfig.getFormat() == null ? DEFAULT_FORMAT : fieldConfig.getFormat();
+    }
+
+    /**
+     * Compiles a SimpleDateFormat pattern into a template and adds the field, offset and length of every field in it
+     * to the fields. Returns null if the pattern has a field which is not a numeric year, month, day, hour, minute,
+     * second or millisecond of a fixed width.
+     */
+    static String compile(String pattern, List<Integer> fields) {
+        StringBuilder template = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'' && i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                template.append('\'');
+                i += 2;
+                continue;
+            }
+            if (c == '\'') {
+                // a quoted text, in which two quotes are a quote
+                i++;
+                while (true) {
+                    if (i == pattern.length()) {
+                        return null;
+                    }
+                    if (pattern.charAt(i) == '\'') {
+                        if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                            template.append('\'');
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    template.append(pattern.charAt(i++));
+                }
+                continue;
+            }
+            if ((c < 'a' || c > 'z') && (c < 'A' || c > 'Z')) {
+                template.append(c);
+                i++;
+                continue;
+            }
+            int length = 1;
+            while (i + length < pattern.length() && pattern.charAt(i + length) == c) {
+                length++;
+            }
+            int field = getField(c, length);
+            if (field < 0) {
+                return null;
+            }
+            fields.add(field);
+            fields.add(template.length());
+            fields.add(length);
+            for (int j = 0; j < length; j++) {
+                template.append('0');
+            }
+            i += length;
+        }
+        return template.toString();
+    }
+
+    private static int getField(char letter, int length) {
+        switch (letter) {
+            case 'y':
+                // SimpleDateFormat does not pad years with less than four letters
+                return length >= 4 && length <= 9 ? YEAR : -1;
+            case 'M':
+                return length == 2 ? MONTH : -1;
+            case 'd':
+                return length == 2 ? DAY : -1;
+            case 'H':
+                return length == 2 ? HOUR : -1;
+            case 'm':
+                return length == 2 ? MINUTE : -1;
+            case 's':
+                return length == 2 ? SECOND : -1;
+            case 'S':
+                return length >= 3 && length <= 9 ? MILLISECOND : -1;
+            default:
+                return -1;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Koen Vlaswinkel
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.koenv.ormlite.processor;
+
+import com.google.common.base.Joiner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The schema of all tables at compile-time, which is written to a resource so the next version of the schema can be
+ * compared with it. Every line of a snapshot is a table or a column of the last table, with tab separated values.
+ * Backslashes, tabs and line breaks in the values are escaped with a backslash. Snapshots written before the full-text
+ * search of a table was recorded have one value less on their table lines.
+ */
+public class SchemaSnapshot {
+    private final Map<String, Table> tables = new LinkedHashMap<String, Table>();
+
+    public static SchemaSnapshot fromTables(List<TableBindings> tableBindings) {
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        for (TableBindings tableBinding : tableBindings) {
+            Table table = new Table(getOptions(tableBinding), getSearch(tableBinding));
+            for (FieldBindings fieldConfig : tableBinding.getFieldConfigs()) {
+                if (fieldConfig.isForeignCollection()) {
+                    continue;
+                }
+                StringBuilder definition = new StringBuilder();
+                fieldConfig.appendDefinition(definition);
+                table.columns.put(fieldConfig.getColumnNameOrDefault(), new Column(definition.toString(),
+                        fieldConfig.getIndexName(tableBinding.getTableName()), fieldConfig.getUniqueIndexName(tableBinding.getTableName())));
+            }
+            snapshot.tables.put(tableBinding.getTableName(), table);
+        }
+        return snapshot;
+    }
+
+    private static String getOptions(TableBindings table) {
+        List<String> options = new ArrayList<String>();
+        if (table.isRowIdAlias()) {
+            options.add("rowIdAlias");
+        }
+        if (table.isWithoutRowId()) {
+            options.add("withoutRowId");
+        }
+        return Joiner.on(',').join(options);
+    }
+
+    private static String getSearch(TableBindings table) {
+        Searchable.Module module = null;
+        List<String> columns = new ArrayList<String>();
+        for (FieldBindings fieldConfig : table.getFieldConfigs()) {
+            if (fieldConfig.getSearchModule() != null) {
+                module = fieldConfig.getSearchModule();
+                columns.add(fieldConfig.getColumnNameOrDefault());
+            }
+        }
+        if (module == null) {
+            return "";
+        }
+        return module.name().toLowerCase() + ":" + Joiner.on(',').join(columns);
+    }
+
+    public static SchemaSnapshot read(Reader reader) throws IOException {
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        BufferedReader lines = new BufferedReader(reader);
+        Table table = null;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] values = line.split("\t", -1);
+            for (int i = 0; i < values.length; i++) {
+                values[i] = unescape(values[i]);
+            }
+            if (values[0].equals("table") && (values.length == 3 || values.length == 4)) {
+                table = new Table(values[2], values.length == 4 ? values[3] : null);
+                snapshot.tables.put(values[1], table);
+            } else if (values[0].equals("column") && values.length == 5 && table != null) {
+                table.columns.put(values[1], new Column(values[2], emptyToNull(values[3]), emptyToNull(values[4])));
+            } else {
+                throw new IOException("Invalid schema snapshot line: " + line);
+            }
+        }
+        return snapshot;
+    }
+
+    public void write(Writer writer, int version) throws IOException {
+        writer.write("# Schema version " + version + ", generated by the OrmLite annotation processor\n");
+        for (Map.Entry<String, Table> table : tables.entrySet()) {
+            writer.write("table\t" + escape(table.getKey()) + "\t" + escape(table.getValue().options) + "\t"
+                    + escape(table.getValue().search) + "\n");
+            for (Map.Entry<String, Column> column : table.getValue().columns.entrySet()) {
+                Column value = column.getValue();
+                writer.write("column\t" + escape(column.getKey()) + "\t" + escape(value.definition) + "\t" + escape(nullToEmpty(value.indexName))
+                        + "\t" + escape(nullToEmpty(value.uniqueIndexName)) + "\n");
+            }
+        }
+    }
+
+    public Map<String, Table> getTables() {
+        return tables;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                sb.append(c);
+                continue;
+            }
+            char next = value.charAt(++i);
+            if (next == 't') {
+                sb.append('\t');
+            } else if (next == 'n') {
+                sb.append('\n');
+            } else if (next == 'r') {
+                sb.append('\r');
+            } else if (next == '\\') {
+                sb.append('\\');
+            } else {
+                sb.append(c).append(next);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    public static class Table {
+        private final String options;
+        private final String search;
+        private final Map<String, Column> columns = new LinkedHashMap<String, Column>();
+
+        private Table(String options, String search) {
+            this.options = options;
+            this.search = search;
+        }
+
+        /**
+         * Return the rowIdAlias and withoutRowId options of the table, separated by commas.
+         */
+        public String getOptions() {
+            return options;
+        }
+
+        /**
+         * Return the module and the columns of the full-text search table, an empty string if the table is not
+         * searchable, or null if the snapshot was written before the search was recorded.
+         */
+        public String getSearch() {
+            return search;
+        }
+
+        /**
+         * Return the columns of the table by name.
+         */
+        public Map<String, Column> getColumns() {
+            return columns;
+        }
+
+        /**
+         * Return the indexes of the table by name. An index covers every column with its name, in order.
+         */
+        public Map<String, Index> getIndexes() {
+            Map<String, Index> indexes = new LinkedHashMap<String, Index>();
+            for (Map.Entry<String, Column> column : columns.entrySet()) {
+                addIndex(indexes, column.getValue().indexName, false, column.getKey());
+                addIndex(indexes, column.getValue().uniqueIndexName, true, column.getKey());
+            }
+            return indexes;
+        }
+
+        private static void addIndex(Map<String, Index> indexes, String name, boolean unique, String columnName) {
+            if (name == null) {
+                return;
+            }
+            Index index = indexes.get(name);
+            if (index == null) {
+                index = new Index(unique);
+                indexes.put(name, index);
+            }
+            index.columnNames.add(columnName);
+        }
+    }
+
+    public static class Column {
+        private final String definition;
+        private final String indexName;
+        private final String uniqueIndexName;
+
+        private Column(String definition, String indexName, String uniqueIndexName) {
+            this.definition = definition;
+            this.indexName = indexName;
+            this.uniqueIndexName = uniqueIndexName;
+        }
+
+        /**
+         * Return the type and constraints of the column.
+         *
+         * @see FieldBindings#appendDefinition(StringBuilder)
+         */
+        public String getDefinition() {
+            return definition;
+        }
+    }
+
+    public static class Index {
+        private final boolean unique;
+        private final List<String> columnNames = new ArrayList<String>();
+
+        private Index(boolean unique) {
+            this.unique = unique;
+        }
+
+        public boolean isUnique() {
+            return unique;
+        }
+
+        public List<String> getColumnNames() {
+            return columnNames;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Index)) {
+                return false;
+            }
+            Index index = (Index) o;
+            return unique == index.unique && columnNames.equals(index.columnNames);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (unique ? 1 : 0) + columnNames.hashCode();
+        }
+    }
+}
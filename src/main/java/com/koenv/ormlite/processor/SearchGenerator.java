@@ -0,0 +1,380 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Koen Vlaswinkel
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.koenv.ormlite.processor;
+
+import com.google.common.base.Joiner;
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.field.SqlType;
+import com.j256.ormlite.stmt.StatementBuilder;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseResults;
+import com.squareup.javapoet.*;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Modifier;
+import javax.tools.Diagnostic;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Generates the $$Search classes of tables with {@link Searchable} fields and the FullTextSearch class they use. The
+ * full-text search table uses the table as external content, so the text is not stored twice.
+ */
+public class SearchGenerator {
+    public static final ClassName FULL_TEXT_SEARCH = ClassName.get("com.koenv.ormlite.processor", "FullTextSearch");
+
+    /**
+     * The suffix of the name of the full-text search table of a table.
+     */
+    public static final String SEARCH_SUFFIX = "_fts";
+
+    /**
+     * The suffixes of the names of the triggers of a search table, of both modules.
+     */
+    public static final List<String> TRIGGER_SUFFIXES = Collections.unmodifiableList(Arrays.asList("_bu", "_bd", "_au", "_ai", "_ad"));
+
+    private static final TypeVariableName T = TypeVariableName.get("T");
+
+    private final Messager messager;
+
+    public SearchGenerator(Messager messager) {
+        this.messager = messager;
+    }
+
+    public JavaFile generateFullTextSearch() {
+        TypeName daoType = ParameterizedTypeName.get(ClassName.get(Dao.class), T, WildcardTypeName.subtypeOf(Object.class));
+        TypeName listOfT = ParameterizedTypeName.get(ClassName.get(List.class), T);
+        ClassName rankedName = FULL_TEXT_SEARCH.nestedClass("Ranked");
+        TypeName rankedOfT = ParameterizedTypeName.get(rankedName, T);
+        TypeName listOfRanked = ParameterizedTypeName.get(ClassName.get(List.class), rankedOfT);
+
+        TypeSpec ranked = TypeSpec.classBuilder(rankedName.simpleName())
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addTypeVariable(T)
+                .addField(T, "data", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(TypeName.DOUBLE, "rank", Modifier.PRIVATE, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addParameter(T, "data")
+                        .addParameter(TypeName.DOUBLE, "rank")
+                        .addStatement("this.data = data")
+                        .addStatement("this.rank = rank")
+                        .build())
+                .build();
+
+        MethodSpec rank = MethodSpec.methodBuilder("rank")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addJavadoc("Ranks a row by the result of matchinfo(..., 'pcx'): the sum of the hits of every phrase in every column,\n"
+                        + "relative to the hits in all rows.\n")
+                .returns(TypeName.DOUBLE)
+                .addParameter(ArrayTypeName.of(TypeName.BYTE), "matchInfo")
+                .addCode("// matchinfo consists of 32-bit integers in the byte order of the device\n")
+                .addStatement("$T buffer = $T.wrap(matchInfo).order($T.nativeOrder())", ByteBuffer.class, ByteBuffer.class, ByteOrder.class)
+                .addStatement("int phrases = buffer.getInt(0)")
+                .addStatement("int columns = buffer.getInt(4)")
+                .addStatement("double rank = 0")
+                .beginControlFlow("for (int i = 0; i < phrases * columns; i++)")
+                .addStatement("int hits = buffer.getInt(8 + i * 12)")
+                .addStatement("int allHits = buffer.getInt(8 + i * 12 + 4)")
+                .beginControlFlow("if (hits > 0)")
+                .addStatement("rank += (double) hits / allHits")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return rank")
+                .build();
+
+        MethodSpec search = MethodSpec.methodBuilder("search")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addTypeVariable(T)
+                .addJavadoc("Runs a search query with one argument, the match expression.\n"
+                        + "\n"
+                        + "@param rankInMemory whether the last column of the query is the matchinfo the results have to be ranked\n"
+                        + "by, otherwise the query returns the results in order\n")
+                .returns(listOfT)
+                .addParameter(daoType, "dao")
+                .addParameter(String.class, "query")
+                .addParameter(String.class, "match")
+                .addParameter(TypeName.BOOLEAN, "rankInMemory")
+                .addException(SQLException.class)
+                .addStatement("$T ranked = new $T()", listOfRanked, ParameterizedTypeName.get(ClassName.get(ArrayList.class), rankedOfT))
+                .addStatement("$T connectionSource = dao.getConnectionSource()", ConnectionSource.class)
+                .addStatement("$T connection = connectionSource.getReadOnlyConnection()", DatabaseConnection.class)
+                .addStatement("$T statement = null", CompiledStatement.class)
+                .addStatement("$T results = null", DatabaseResults.class)
+                .beginControlFlow("try")
+                .addStatement("statement = connection.compileStatement(query, $T.SELECT, new $T[0], $T.DEFAULT_RESULT_FLAGS)",
+                        StatementBuilder.StatementType.class, FieldType.class, DatabaseConnection.class)
+                .addStatement("statement.setObject(0, match, $T.STRING)", SqlType.class)
+                .addStatement("results = statement.runQuery(dao.getObjectCache())")
+                .beginControlFlow("if (results.first())")
+                .beginControlFlow("do")
+                .addStatement("double rank = rankInMemory ? rank(results.getBytes(results.getColumnCount() - 1)) : 0")
+                .addStatement("ranked.add(new $T(dao.mapSelectStarRow(results), rank))", rankedOfT)
+                .endControlFlow("while (results.next())")
+                .endControlFlow()
+                .nextControlFlow("finally")
+                .beginControlFlow("if (results != null)")
+                .addStatement("results.closeQuietly()")
+                .endControlFlow()
+                .beginControlFlow("if (statement != null)")
+                .addStatement("statement.closeQuietly()")
+                .endControlFlow()
+                .addStatement("connectionSource.releaseConnection(connection)")
+                .endControlFlow()
+                .beginControlFlow("if (rankInMemory)")
+                .addStatement("$T.sort(ranked, $L)", Collections.class, TypeSpec.anonymousClassBuilder("")
+                        .addSuperinterface(ParameterizedTypeName.get(ClassName.get(Comparator.class), rankedOfT))
+                        .addMethod(MethodSpec.methodBuilder("compare")
+                                .addAnnotation(Override.class)
+                                .addModifiers(Modifier.PUBLIC)
+                                .returns(TypeName.INT)
+                                .addParameter(rankedOfT, "lhs")
+                                .addParameter(rankedOfT, "rhs")
+                                .addStatement("return $T.compare(rhs.rank, lhs.rank)", Double.class)
+                                .build())
+                        .build())
+                .endControlFlow()
+                .addStatement("$T list = new $T(ranked.size())", listOfT, ParameterizedTypeName.get(ClassName.get(ArrayList.class), T))
+                .beginControlFlow("for ($T result : ranked)", rankedOfT)
+                .addStatement("list.add(result.data)")
+                .endControlFlow()
+                .addStatement("return list")
+                .build();
+
+        MethodSpec execute = MethodSpec.methodBuilder("execute")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Executes the statements in order, in one connection.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(ArrayTypeName.of(String.class), "statements")
+                .varargs()
+                .addException(SQLException.class)
+                .addStatement("$T connection = connectionSource.getReadWriteConnection()", DatabaseConnection.class)
+                .beginControlFlow("try")
+                .beginControlFlow("for (String statement : statements)")
+                .addStatement("connection.executeStatement(statement, $T.DEFAULT_RESULT_FLAGS)", DatabaseConnection.class)
+                .endControlFlow()
+                .nextControlFlow("finally")
+                .addStatement("connectionSource.releaseConnection(connection)")
+                .endControlFlow()
+                .build();
+
+        MethodSpec createTable = MethodSpec.methodBuilder("createTable")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Executes the create statements in one connection. If the exists query did not find the search table before,\n"
+                        + "the rebuild statement is executed as well, to index the rows which already existed.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addParameter(String.class, "existsQuery")
+                .addParameter(ArrayTypeName.of(String.class), "statements")
+                .addParameter(String.class, "rebuildStatement")
+                .addException(SQLException.class)
+                .addStatement("$T connection = connectionSource.getReadWriteConnection()", DatabaseConnection.class)
+                .beginControlFlow("try")
+                .addStatement("boolean exists = connection.queryForLong(existsQuery) > 0")
+                .beginControlFlow("for (String statement : statements)")
+                .addStatement("connection.executeStatement(statement, $T.DEFAULT_RESULT_FLAGS)", DatabaseConnection.class)
+                .endControlFlow()
+                .beginControlFlow("if (!exists)")
+                .addStatement("connection.executeStatement(rebuildStatement, $T.DEFAULT_RESULT_FLAGS)", DatabaseConnection.class)
+                .endControlFlow()
+                .nextControlFlow("finally")
+                .addStatement("connectionSource.releaseConnection(connection)")
+                .endControlFlow()
+                .build();
+
+        TypeSpec fullTextSearch = TypeSpec.classBuilder(FULL_TEXT_SEARCH.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addJavadoc("Runs the statements of the generated $$$$Search classes.\n")
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build())
+                .addMethod(execute)
+                .addMethod(createTable)
+                .addMethod(search)
+                .addMethod(rank)
+                .addType(ranked)
+                .build();
+
+        return JavaFile.builder(FULL_TEXT_SEARCH.packageName(), fullTextSearch).build();
+    }
+
+    /**
+     * Generates the search class of a table, or returns null if it does not have any searchable fields.
+     */
+    public JavaFile generateSearch(TableBindings table) {
+        List<String> columns = new ArrayList<String>();
+        Searchable.Module module = null;
+        for (FieldBindings fieldConfig : table.getFieldConfigs()) {
+            if (fieldConfig.getSearchModule() == null) {
+                continue;
+            }
+            if (module != null && module != fieldConfig.getSearchModule()) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "All @Searchable fields of a table must use the same module", table.getElement());
+                return null;
+            }
+            module = fieldConfig.getSearchModule();
+            columns.add(fieldConfig.getColumnName() == null ? fieldConfig.getFieldName() : fieldConfig.getColumnName());
+        }
+        if (module == null) {
+            return null;
+        }
+
+        String tableName = table.getTableName();
+        String searchTableName = tableName + SEARCH_SUFFIX;
+        String table_ = escape(tableName);
+        String search_ = escape(searchTableName);
+        String columnList = Joiner.on(", ").join(escape(columns));
+        String newValues = "new." + Joiner.on(", new.").join(escape(columns));
+        String oldValues = "old." + Joiner.on(", old.").join(escape(columns));
+
+        List<String> create = new ArrayList<String>();
+        List<String> triggers = new ArrayList<String>();
+        String search;
+        if (module == Searchable.Module.FTS4) {
+            create.add("CREATE VIRTUAL TABLE IF NOT EXISTS " + search_ + " USING fts4(content=" + quote(tableName) + ", " + columnList + ")");
+            // the old values are read from the content table, so they have to be deleted before the content changes
+            create.add(trigger(triggers, searchTableName + "_bu", "BEFORE UPDATE", table_, "DELETE FROM " + search_ + " WHERE docid = old.rowid"));
+            create.add(trigger(triggers, searchTableName + "_bd", "BEFORE DELETE", table_, "DELETE FROM " + search_ + " WHERE docid = old.rowid"));
+            create.add(trigger(triggers, searchTableName + "_au", "AFTER UPDATE", table_, "INSERT INTO " + search_ + " (docid, " + columnList + ") VALUES (new.rowid, " + newValues + ")"));
+            create.add(trigger(triggers, searchTableName + "_ai", "AFTER INSERT", table_, "INSERT INTO " + search_ + " (docid, " + columnList + ") VALUES (new.rowid, " + newValues + ")"));
+            search = "SELECT " + table_ + ".*, matchinfo(" + search_ + ", 'pcx') FROM " + table_ + " JOIN " + search_ + " ON " + search_ + ".docid = " + table_ + ".rowid WHERE " + search_ + " MATCH ?";
+        } else {
+            create.add("CREATE VIRTUAL TABLE IF NOT EXISTS " + search_ + " USING fts5(" + columnList + ", content=" + quote(tableName) + ")");
+            String delete = "INSERT INTO " + search_ + " (" + search_ + ", rowid, " + columnList + ") VALUES ('delete', old.rowid, " + oldValues + ")";
+            String insert = "INSERT INTO " + search_ + " (rowid, " + columnList + ") VALUES (new.rowid, " + newValues + ")";
+            create.add(trigger(triggers, searchTableName + "_ai", "AFTER INSERT", table_, insert));
+            create.add(trigger(triggers, searchTableName + "_ad", "AFTER DELETE", table_, delete));
+            create.add(trigger(triggers, searchTableName + "_au", "AFTER UPDATE", table_, delete + "; " + insert));
+            search = "SELECT " + table_ + ".* FROM " + table_ + " JOIN " + search_ + " ON " + search_ + ".rowid = " + table_ + ".rowid WHERE " + search_ + " MATCH ? ORDER BY " + search_ + ".rank";
+        }
+        String exists = "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = " + quote(searchTableName);
+        String rebuild = "INSERT INTO " + search_ + " (" + search_ + ") VALUES ('rebuild')";
+
+        List<String> drop = new ArrayList<String>();
+        for (String trigger : triggers) {
+            drop.add("DROP TRIGGER IF EXISTS " + escape(trigger));
+        }
+        drop.add("DROP TABLE IF EXISTS " + search_);
+
+        ClassName className = table.getClassName();
+        ClassName searchName = table.getGeneratedName("$$Search");
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(searchName.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addOriginatingElement(table.getElement())
+                .addJavadoc("Full-text search over the searchable fields of {@link $T}, using SQLite's $L\n", className, module.name().toLowerCase())
+                .addField(FieldSpec.builder(String.class, "TABLE_NAME", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$S", searchTableName)
+                        .build())
+                .addField(stringArray("CREATE_STATEMENTS", create))
+                .addField(stringArray("DROP_STATEMENTS", drop))
+                .addField(FieldSpec.builder(String.class, "EXISTS_QUERY", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$S", exists)
+                        .build())
+                .addField(FieldSpec.builder(String.class, "REBUILD_STATEMENT", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$S", rebuild)
+                        .build())
+                .addField(FieldSpec.builder(String.class, "SEARCH_QUERY", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$S", search)
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("createTable")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Creates the full-text search table and its triggers if they don't exist. If the search table is created, the\n"
+                        + "existing rows are indexed. Call this after the table itself has been created.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addException(SQLException.class)
+                .addStatement("$T.createTable(connectionSource, EXISTS_QUERY, CREATE_STATEMENTS, REBUILD_STATEMENT)", FULL_TEXT_SEARCH)
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("rebuild")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Indexes all rows of the table again, for example after they were changed without the triggers.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addException(SQLException.class)
+                .addStatement("$T.execute(connectionSource, REBUILD_STATEMENT)", FULL_TEXT_SEARCH)
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("dropTable")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Drops the full-text search table and its triggers.\n")
+                .addParameter(ConnectionSource.class, "connectionSource")
+                .addException(SQLException.class)
+                .addStatement("$T.execute(connectionSource, DROP_STATEMENTS)", FULL_TEXT_SEARCH)
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("search")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Returns the rows matching the full-text query, best match first.\n")
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), className))
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Dao.class), className, WildcardTypeName.subtypeOf(Object.class)), "dao")
+                .addParameter(String.class, "match")
+                .addException(SQLException.class)
+                .addStatement("return $T.search(dao, SEARCH_QUERY, match, $L)", FULL_TEXT_SEARCH, module == Searchable.Module.FTS4)
+                .build());
+
+        return JavaFile.builder(searchName.packageName(), builder.build()).build();
+    }
+
+    private static String trigger(List<String> triggers, String name, String when, String table, String statement) {
+        triggers.add(name);
+        return "CREATE TRIGGER IF NOT EXISTS " + escape(name) + " " + when + " ON " + table + " BEGIN " + statement + "; END";
+    }
+
+    private static FieldSpec stringArray(String name, List<String> values) {
+        StringBuilder format = new StringBuilder("{\n$>");
+        for (int i = 0; i < values.size(); i++) {
+            format.append(i == 0 ? "$S" : ",\n$S");
+        }
+        return FieldSpec.builder(String[].class, name, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(format.append("$<\n}").toString(), values.toArray())
+                .build();
+    }
+
+    private static String escape(String name) {
+        return '`' + name + '`';
+    }
+
+    private static List<String> escape(List<String> names) {
+        List<String> escaped = new ArrayList<String>();
+        for (String name : names) {
+            escaped.add(escape(name));
+        }
+        return escaped;
+    }
+
+    private static String quote(String value) {
+        return '\'' + value.replace("'", "''") + '\'';
+    }
+}
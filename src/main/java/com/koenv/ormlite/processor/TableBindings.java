@@ -0,0 +1,261 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Koen Vlaswinkel
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.koenv.ormlite.processor;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.hash.Hashing;
+import com.j256.ormlite.table.DatabaseTable;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the processor knows about a single class annotated with
+ * {@link com.j256.ormlite.table.DatabaseTable}.
+ */
+public class TableBindings {
+    private final TypeElement element;
+    private final String tableName;
+    private final List<FieldBindings> fieldConfigs;
+    private final ClassName className;
+    private final ClassName configName;
+
+    public TableBindings(TypeElement element, String tableName, List<FieldBindings> fieldConfigs) {
+        this.element = element;
+        this.tableName = tableName;
+        this.fieldConfigs = fieldConfigs;
+        this.className = ClassName.get(element);
+        this.configName = getGeneratedName("$$Configuration");
+    }
+
+    public TypeElement getElement() {
+        return element;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<FieldBindings> getFieldConfigs() {
+        return fieldConfigs;
+    }
+
+    /**
+     * Return the name of the annotated class.
+     */
+    public ClassName getClassName() {
+        return className;
+    }
+
+    /**
+     * Return the name of the generated $$Configuration class.
+     */
+    public ClassName getConfigName() {
+        return configName;
+    }
+
+    /**
+     * Return the name of the generated $$AsyncDao class.
+     */
+    public ClassName getAsyncDaoName() {
+        return getGeneratedName("$$AsyncDao");
+    }
+
+    /**
+     * Return the name of the generated $$ChangeTracker class.
+     */
+    public ClassName getChangeTrackerName() {
+        return getGeneratedName("$$ChangeTracker");
+    }
+
+    /**
+     * Return the name of a class generated for this table, which is the name of the annotated class, followed by the
+     * suffix, in the same package.
+     */
+    public ClassName getGeneratedName(String suffix) {
+        return ClassName.get(className.packageName(), Joiner.on('$').join(className.simpleNames()) + suffix);
+    }
+
+    /**
+     * Return the field marked with id or generatedId, or null if the table does not have an id.
+     */
+    public FieldBindings getIdField() {
+        for (FieldBindings fieldConfig : fieldConfigs) {
+            if (fieldConfig.isId() || fieldConfig.isGeneratedId() || fieldConfig.getGeneratedIdSequence() != null) {
+                return fieldConfig;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the boxed type of the id field, which is the ID type argument of the DAO, or null if the table does not
+     * have an id.
+     */
+    public TypeName getIdTypeName(Types typeUtils) {
+        FieldBindings idField = getIdField();
+        if (idField == null) {
+            return null;
+        }
+        TypeMirror type = idField.getFieldType();
+        if (type.getKind().isPrimitive()) {
+            return TypeName.get(typeUtils.boxedClass((PrimitiveType) type).asType());
+        }
+        return TypeName.get(type);
+    }
+
+    /**
+     * Return whether the table is annotated with {@link SqliteTable#rowIdAlias()}.
+     */
+    public boolean isRowIdAlias() {
+        SqliteTable sqliteTable = element.getAnnotation(SqliteTable.class);
+        return sqliteTable != null && sqliteTable.rowIdAlias();
+    }
+
+    /**
+     * Return whether the table is annotated with {@link SqliteTable#withoutRowId()}.
+     */
+    public boolean isWithoutRowId() {
+        SqliteTable sqliteTable = element.getAnnotation(SqliteTable.class);
+        return sqliteTable != null && sqliteTable.withoutRowId();
+    }
+
+    /**
+     * Return the column definition of the field in the generated config. The id field of a rowid alias table is
+     * declared as INTEGER, OrmLite adds the PRIMARY KEY for an id, but not for a generatedId.
+     */
+    public String getColumnDefinition(FieldBindings fieldConfig) {
+        if (isRowIdAlias() && fieldConfig == getIdField()) {
+            return fieldConfig.isGeneratedId() ? "INTEGER PRIMARY KEY" : "INTEGER";
+        }
+        return fieldConfig.getColumnDefinition();
+    }
+
+    /**
+     * Return a stable hash of everything that ends up in the table's DDL: the table name and the name, type and
+     * constraints of every column, including index names. Foreign collections are skipped because they are not
+     * columns.
+     */
+    public long getSchemaHash() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(tableName).append('\n');
+        for (FieldBindings fieldConfig : fieldConfigs) {
+            if (!fieldConfig.isForeignCollection()) {
+                fieldConfig.appendSchema(sb, tableName);
+                sb.append('\n');
+            }
+        }
+        if (isRowIdAlias()) {
+            sb.append("rowIdAlias\n");
+        }
+        if (isWithoutRowId()) {
+            sb.append("withoutRowId\n");
+        }
+        return hash(sb);
+    }
+
+    /**
+     * Return a stable hash over the schema hashes of all tables, independent of the order they are given in.
+     */
+    public static long getSchemaHash(List<TableBindings> tables) {
+        String[] lines = new String[tables.size()];
+        for (int i = 0; i < lines.length; i++) {
+            TableBindings table = tables.get(i);
+            lines[i] = table.getTableName() + '=' + table.getSchemaHash();
+        }
+        Arrays.sort(lines);
+        return hash(Joiner.on('\n').join(lines));
+    }
+
+    /**
+     * Return whether the annotation sets a daoClass, which OrmLite has to create the DAO with.
+     */
+    public boolean hasCustomDao() {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (!annotation.getAnnotationType().toString().equals(DatabaseTable.class.getName())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("daoClass")) {
+                    return !entry.getValue().getValue().toString().equals(Void.class.getName());
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return the level of every table in the graph of foreign fields: a table only refers to tables with a lower
+     * level, so creating the DAOs level by level means the foreign DAOs already exist. Cycles are broken at the
+     * table where they are found.
+     */
+    public static int[] getForeignLevels(List<TableBindings> tables, Types typeUtils) {
+        Map<String, Integer> indexes = new HashMap<String, Integer>();
+        for (int i = 0; i < tables.size(); i++) {
+            indexes.put(tables.get(i).getElement().getQualifiedName().toString(), i);
+        }
+        int[] levels = new int[tables.size()];
+        Arrays.fill(levels, -1);
+        for (int i = 0; i < tables.size(); i++) {
+            getForeignLevel(tables, typeUtils, indexes, levels, i);
+        }
+        return levels;
+    }
+
+    private static int getForeignLevel(List<TableBindings> tables, Types typeUtils, Map<String, Integer> indexes, int[] levels, int index) {
+        if (levels[index] >= 0) {
+            return levels[index];
+        }
+        // mark the table as visited, a cycle ends here
+        levels[index] = 0;
+        int level = 0;
+        for (FieldBindings fieldConfig : tables.get(index).getFieldConfigs()) {
+            if (!fieldConfig.isForeign()) {
+                continue;
+            }
+            Integer foreignIndex = indexes.get(typeUtils.erasure(fieldConfig.getFieldType()).toString());
+            if (foreignIndex != null && foreignIndex != index) {
+                level = Math.max(level, getForeignLevel(tables, typeUtils, indexes, levels, foreignIndex) + 1);
+            }
+        }
+        levels[index] = level;
+        return level;
+    }
+
+    private static long hash(CharSequence value) {
+        return Hashing.sha1().hashString(value, Charsets.UTF_8).asLong();
+    }
+}
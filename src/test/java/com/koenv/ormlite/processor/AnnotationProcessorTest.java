@@ -3,8 +3,11 @@ package com.koenv.ormlite.processor;
 import com.google.testing.compile.JavaFileObjects;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static com.google.common.truth.Truth.assert_;
 import static com.google.testing.compile.JavaSourceSubjectFactory.javaSource;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
 
 public class AnnotationProcessorTest {
     @Test
@@ -30,4 +33,154 @@ public class AnnotationProcessorTest {
                 JavaFileObjects.forResource("enum_model/OrmLiteProcessor.java")
         );
     }
+
+    @Test
+    public void asyncModelTest() {
+        assert_().about(javaSource())
+                .that(JavaFileObjects.forResource("async_model/AsyncModel.java"))
+                .processedWith(new AnnotationProcessor())
+                .compilesWithoutError()
+                .and().generatesSources(
+                JavaFileObjects.forResource("async_model/AsyncModel$$AsyncDao.java"),
+                JavaFileObjects.forResource("async_model/OrmLiteAsync.java")
+        );
+    }
+
+    @Test
+    public void changeTrackerModelTest() {
+        assert_().about(javaSource())
+                .that(JavaFileObjects.forResource("change_tracker_model/ChangeTrackerModel.java"))
+                .processedWith(new AnnotationProcessor())
+                .compilesWithoutError()
+                .and().generatesSources(
+                JavaFileObjects.forResource("change_tracker_model/ChangeTrackerModel$$ChangeTracker.java"),
+                JavaFileObjects.forResource("change_tracker_model/ChangeTracker.java")
+        );
+    }
+
+    @Test
+    public void finderModelTest() {
+        assert_().about(javaSource())
+                .that(JavaFileObjects.forResource("finder_model/FinderModel.java"))
+                .processedWith(new AnnotationProcessor())
+                .compilesWithoutError()
+                .and().generatesSources(
+                JavaFileObjects.forResource("finder_model/FinderModel$$Finders.java"),
+                JavaFileObjects.forResource("finder_model/Finder.java")
+        );
+    }
+
+    @Test
+    public void foreignCollectionModelTest() {
+        assert_().about(javaSources())
+                .that(Arrays.asList(
+                        JavaFileObjects.forResource("foreign_collection_model/Basket.java"),
+                        JavaFileObjects.forResource("foreign_collection_model/Item.java")
+                ))
+                .processedWith(new AnnotationProcessor())
+                .compilesWithoutError()
+                .and().generatesSources(
+                JavaFileObjects.forResource("foreign_collection_model/Basket$$ForeignCollections.java"),
+                JavaFileObjects.forResource("foreign_collection_model/ForeignCollectionLoader.java")
+        );
+    }
+
+    @Test
+    public void columnsModelTest() {
+        assert_().about(javaSource())
+                .that(JavaFileObjects.forResource("columns_model/ColumnsModel.java"))
+                .processedWith(new AnnotationProcessor())
+                .compilesWithoutError()
+                .and().generatesSources(
+                JavaFileObjects.forResource("columns_model/ColumnsModel$$Columns.java")
+        );
+    }
+
+    @Test
+    public void searchModelTest() {
+        assert_().about(javaSources())
+                .that(Arrays.asList(
+                        JavaFileObjects.forResource("search_model/Message.java"),
+                        JavaFileObjects.forResource("search_model/Note.java")
+                ))
+                .processedWith(new AnnotationProcessor())
+                .compilesWithoutError()
+                .and().generatesSources(
+                JavaFileObjects.forResource("search_model/Message$$Search.java"),
+                JavaFileObjects.forResource("search_model/Note$$Search.java"),
+                JavaFileObjects.forResource("search_model/FullTextSearch.java")
+        );
+    }
+
+    @Test
+    public void multipleModelsTest() {
+        // the tables should be registered in the same order, whatever the order of the sources is
+        assert_().about(javaSources())
+                .that(Arrays.asList(
+                        JavaFileObjects.forResource("multiple_models/Order.java"),
+                        JavaFileObjects.forResource("multiple_models/Account.java")
+                ))
+                .processedWith(new AnnotationProcessor())
+                .compilesWithoutError()
+                .and().generatesSources(
+                JavaFileObjects.forResource("multiple_models/OrmLiteProcessor.java")
+        );
+    }
+
+    @Test
+    public void sqliteTableModelTest() {
+        assert_().about(javaSources())
+                .that(Arrays.asList(
+                        JavaFileObjects.forResource("sqlite_table_model/Event.java"),
+                        JavaFileObjects.forResource("sqlite_table_model/Country.java")
+                ))
+                .processedWith(new AnnotationProcessor())
+                .compilesWithoutError()
+                .and().generatesSources(
+                JavaFileObjects.forResource("sqlite_table_model/Event$$Configuration.java"),
+                JavaFileObjects.forResource("sqlite_table_model/Country$$Configuration.java")
+        );
+    }
+
+    @Test
+    public void lazyModelTest() {
+        assert_().about(javaSource())
+                .that(JavaFileObjects.forResource("lazy_model/Document.java"))
+                .processedWith(new AnnotationProcessor())
+                .compilesWithoutError()
+                .and().generatesSources(
+                JavaFileObjects.forResource("lazy_model/Document$$Lazy.java"),
+                JavaFileObjects.forResource("lazy_model/LazyLoader.java")
+        );
+    }
+
+    @Test
+    public void formatModelTest() {
+        assert_().about(javaSource())
+                .that(JavaFileObjects.forResource("format_model/Event.java"))
+                .processedWith(new AnnotationProcessor())
+                .compilesWithoutError()
+                .and().generatesSources(
+                JavaFileObjects.forResource("format_model/Event$$Configuration.java"),
+                JavaFileObjects.forResource("format_model/Event$$Persisters.java"),
+                JavaFileObjects.forResource("format_model/DateStringFormat.java"),
+                JavaFileObjects.forResource("format_model/DateStringPersister.java")
+        );
+    }
+
+    @Test
+    public void migrationModelTest() {
+        // the snapshots of the previous versions are in com/koenv/ormlite/processor/schema on the class path
+        assert_().about(javaSources())
+                .that(Arrays.asList(
+                        JavaFileObjects.forResource("migration_model/Customer.java"),
+                        JavaFileObjects.forResource("migration_model/Invoice.java")
+                ))
+                .processedWith(new AnnotationProcessor())
+                .compilesWithoutError()
+                .and().generatesSources(
+                JavaFileObjects.forResource("migration_model/OrmLiteMigrations.java"),
+                JavaFileObjects.forResource("migration_model/SchemaMigration.java")
+        );
+    }
 }
@@ -0,0 +1,189 @@
+package com.koenv.ormlite.processor;
+
+import com.google.testing.compile.JavaFileObjects;
+import com.j256.ormlite.dao.BaseDaoImpl;
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.db.BaseDatabaseType;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the generated change tracker against a connection which returns a fixed number of updated rows, to check how
+ * a version conflict is told apart from an update without changes.
+ */
+public class ChangeTrackerTest {
+    private final List<String> statements = new ArrayList<String>();
+    private int updatedRows;
+
+    private Class<?> modelClass;
+    private Object tracker;
+    private Object model;
+
+    @Before
+    public void setUp() throws Exception {
+        ClassLoader classLoader = compile(
+                JavaFileObjects.forResource("change_tracker_model/ChangeTrackerModel.java"),
+                JavaFileObjects.forResource("change_tracker_model/ChangeTracker.java"),
+                JavaFileObjects.forResource("change_tracker_model/ChangeTrackerModel$$ChangeTracker.java")
+        );
+        modelClass = classLoader.loadClass("com.koenv.ormlite.processor.ChangeTrackerModel");
+        @SuppressWarnings("unchecked")
+        Dao<Object, Object> dao = new BaseDaoImpl<Object, Object>(createConnectionSource(), (Class<Object>) modelClass) {
+        };
+        tracker = classLoader.loadClass("com.koenv.ormlite.processor.ChangeTrackerModel$$ChangeTracker")
+                .getConstructor(Dao.class)
+                .newInstance(dao);
+        model = modelClass.newInstance();
+        setField("id", 1L);
+        setField("name", "a");
+        setField("version", 4);
+    }
+
+    @Test
+    public void updateWithoutChanges() throws Exception {
+        Object[] snapshot = snapshot();
+        updatedRows = 1;
+
+        assertEquals(tracker.getClass().getField("UNCHANGED").getInt(null), update(snapshot));
+        assertTrue(statements.isEmpty());
+    }
+
+    @Test
+    public void updateWithChanges() throws Exception {
+        Object[] snapshot = snapshot();
+        setField("name", "b");
+        updatedRows = 1;
+
+        assertEquals(1, update(snapshot));
+        assertEquals(1, statements.size());
+        assertEquals(5, getField("version"));
+        assertFalse(isChanged(snapshot));
+    }
+
+    @Test
+    public void updateWithVersionConflict() throws Exception {
+        Object[] snapshot = snapshot();
+        setField("name", "b");
+        updatedRows = 0;
+
+        assertEquals(0, update(snapshot));
+        assertEquals(1, statements.size());
+        assertEquals("UPDATE `changetrackermodel` SET `name` = ?,`version` = ? WHERE `id` = ? AND `version` = ?", statements.get(0));
+        // the snapshot and the version are kept, so the caller can reload the row and try again
+        assertEquals(4, getField("version"));
+        assertTrue(isChanged(snapshot));
+    }
+
+    private Object[] snapshot() throws Exception {
+        return (Object[]) tracker.getClass().getMethod("snapshot", Object.class).invoke(tracker, model);
+    }
+
+    private int update(Object[] snapshot) throws Exception {
+        return (Integer) tracker.getClass().getMethod("update", Object.class, Object[].class).invoke(tracker, model, snapshot);
+    }
+
+    private boolean isChanged(Object[] snapshot) throws Exception {
+        return (Boolean) tracker.getClass().getMethod("isChanged", Object.class, Object[].class).invoke(tracker, model, snapshot);
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = modelClass.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(model, value);
+    }
+
+    private Object getField(String name) throws Exception {
+        Field field = modelClass.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(model);
+    }
+
+    private ConnectionSource createConnectionSource() {
+        final BaseDatabaseType databaseType = new BaseDatabaseType() {
+            @Override
+            protected String getDriverClassName() {
+                return null;
+            }
+
+            @Override
+            public String getDatabaseName() {
+                return "Test";
+            }
+
+            @Override
+            public boolean isDatabaseUrlThisType(String url, String dbTypePart) {
+                return false;
+            }
+        };
+        final DatabaseConnection connection = proxy(DatabaseConnection.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("update")) {
+                    statements.add((String) args[0]);
+                    return updatedRows;
+                }
+                return defaultValue(method);
+            }
+        });
+        return proxy(ConnectionSource.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getDatabaseType")) {
+                    return databaseType;
+                }
+                if (method.getName().equals("getReadWriteConnection")) {
+                    return connection;
+                }
+                return defaultValue(method);
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(ChangeTrackerTest.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object defaultValue(Method method) {
+        if (method.getReturnType() == boolean.class) {
+            return false;
+        }
+        if (method.getReturnType() == int.class) {
+            return 0;
+        }
+        if (method.getReturnType() == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    private static ClassLoader compile(JavaFileObject... sources) throws Exception {
+        File output = Files.createTempDirectory("change_tracker").toFile();
+        String classPath = new File(Dao.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null,
+                Arrays.asList("-proc:none", "-classpath", classPath, "-d", output.getPath()), null, Arrays.asList(sources));
+        assertTrue("The generated sources do not compile", task.call());
+        return new URLClassLoader(new URL[]{output.toURI().toURL()}, ChangeTrackerTest.class.getClassLoader());
+    }
+}
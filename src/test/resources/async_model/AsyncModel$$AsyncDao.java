@@ -0,0 +1,174 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.stmt.PreparedQuery;
+import java.lang.Boolean;
+import java.lang.Exception;
+import java.lang.Integer;
+import java.lang.Long;
+import java.lang.Object;
+import java.lang.Override;
+import java.lang.String;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+public final class AsyncModel$$AsyncDao {
+    private final Dao<AsyncModel, Long> dao;
+
+    private final OrmLiteAsync async;
+
+    public AsyncModel$$AsyncDao(Dao<AsyncModel, Long> dao, OrmLiteAsync async) {
+        this.dao = dao;
+        this.async = async;
+    }
+
+    public Dao<AsyncModel, Long> getDao() {
+        return dao;
+    }
+
+    public CompletableFuture<AsyncModel> queryForId(final Long id) {
+        return async.read(new Callable<AsyncModel>() {
+            @Override
+            public AsyncModel call() throws Exception {
+                return dao.queryForId(id);
+            }
+        });
+    }
+
+    public CompletableFuture<List<AsyncModel>> queryForAll() {
+        return async.read(new Callable<List<AsyncModel>>() {
+            @Override
+            public List<AsyncModel> call() throws Exception {
+                return dao.queryForAll();
+            }
+        });
+    }
+
+    public CompletableFuture<List<AsyncModel>> queryForEq(final String fieldName, final Object value) {
+        return async.read(new Callable<List<AsyncModel>>() {
+            @Override
+            public List<AsyncModel> call() throws Exception {
+                return dao.queryForEq(fieldName, value);
+            }
+        });
+    }
+
+    public CompletableFuture<List<AsyncModel>> query(final PreparedQuery<AsyncModel> preparedQuery) {
+        return async.read(new Callable<List<AsyncModel>>() {
+            @Override
+            public List<AsyncModel> call() throws Exception {
+                return dao.query(preparedQuery);
+            }
+        });
+    }
+
+    public CompletableFuture<AsyncModel> queryForFirst(final PreparedQuery<AsyncModel> preparedQuery) {
+        return async.read(new Callable<AsyncModel>() {
+            @Override
+            public AsyncModel call() throws Exception {
+                return dao.queryForFirst(preparedQuery);
+            }
+        });
+    }
+
+    public CompletableFuture<Long> countOf() {
+        return async.read(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                return dao.countOf();
+            }
+        });
+    }
+
+    public CompletableFuture<Boolean> idExists(final Long id) {
+        return async.read(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return dao.idExists(id);
+            }
+        });
+    }
+
+    public CompletableFuture<Integer> refresh(final AsyncModel data) {
+        return async.read(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return dao.refresh(data);
+            }
+        });
+    }
+
+    public CompletableFuture<Integer> create(final AsyncModel data) {
+        return async.write(dao.getConnectionSource(), new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return dao.create(data);
+            }
+        });
+    }
+
+    public CompletableFuture<AsyncModel> createIfNotExists(final AsyncModel data) {
+        return async.write(dao.getConnectionSource(), new Callable<AsyncModel>() {
+            @Override
+            public AsyncModel call() throws Exception {
+                return dao.createIfNotExists(data);
+            }
+        });
+    }
+
+    public CompletableFuture<Dao.CreateOrUpdateStatus> createOrUpdate(final AsyncModel data) {
+        return async.write(dao.getConnectionSource(), new Callable<Dao.CreateOrUpdateStatus>() {
+            @Override
+            public Dao.CreateOrUpdateStatus call() throws Exception {
+                return dao.createOrUpdate(data);
+            }
+        });
+    }
+
+    public CompletableFuture<Integer> update(final AsyncModel data) {
+        return async.write(dao.getConnectionSource(), new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return dao.update(data);
+            }
+        });
+    }
+
+    public CompletableFuture<Integer> delete(final AsyncModel data) {
+        return async.write(dao.getConnectionSource(), new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return dao.delete(data);
+            }
+        });
+    }
+
+    public CompletableFuture<Integer> delete(final Collection<AsyncModel> datas) {
+        return async.write(dao.getConnectionSource(), new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return dao.delete(datas);
+            }
+        });
+    }
+
+    public CompletableFuture<Integer> deleteById(final Long id) {
+        return async.write(dao.getConnectionSource(), new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return dao.deleteById(id);
+            }
+        });
+    }
+
+    public CompletableFuture<Integer> deleteIds(final Collection<Long> ids) {
+        return async.write(dao.getConnectionSource(), new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return dao.deleteIds(ids);
+            }
+        });
+    }
+}
\ No newline at end of file
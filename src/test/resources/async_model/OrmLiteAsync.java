@@ -0,0 +1,129 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.support.ConnectionSource;
+import java.lang.IllegalArgumentException;
+import java.lang.Override;
+import java.lang.Runnable;
+import java.lang.RuntimeException;
+import java.lang.Throwable;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+public final class OrmLiteAsync {
+    private final Executor executor;
+
+    private final BoundedExecutor readExecutor;
+
+    private final Map<ConnectionSource, BoundedExecutor> writeExecutors = new IdentityHashMap<ConnectionSource, BoundedExecutor>();
+
+    public OrmLiteAsync(Executor executor, int maxReads) {
+        if (maxReads < 1) {
+            throw new IllegalArgumentException("maxReads must be at least 1, was " + maxReads);
+        }
+        this.executor = executor;
+        this.readExecutor = new BoundedExecutor(executor, maxReads);
+    }
+
+    public <R> CompletableFuture<R> read(Callable<R> callable) {
+        return submit(readExecutor, callable);
+    }
+
+    public <R> CompletableFuture<R> write(ConnectionSource connectionSource, Callable<R> callable) {
+        return submit(getWriteExecutor(connectionSource), callable);
+    }
+
+    private synchronized BoundedExecutor getWriteExecutor(ConnectionSource connectionSource) {
+        BoundedExecutor writeExecutor = writeExecutors.get(connectionSource);
+        if (writeExecutor == null) {
+            writeExecutor = new BoundedExecutor(executor, 1);
+            writeExecutors.put(connectionSource, writeExecutor);
+        }
+        return writeExecutor;
+    }
+
+    private static <R> CompletableFuture<R> submit(BoundedExecutor executor, Callable<R> callable) {
+        Call<R> call = new Call<R>(callable);
+        executor.execute(call);
+        return call.future;
+    }
+
+    private static final class Call<R> implements Runnable {
+        private final Callable<R> callable;
+
+        private final CompletableFuture<R> future = new CompletableFuture<R>();
+
+        Call(Callable<R> callable) {
+            this.callable = callable;
+        }
+
+        @Override
+        public void run() {
+            try {
+                future.complete(callable.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+
+    private static final class BoundedExecutor {
+        private final Executor delegate;
+
+        private final int maxConcurrency;
+
+        private final Queue<Call<?>> queue = new ArrayDeque<Call<?>>();
+
+        private int running;
+
+        BoundedExecutor(Executor delegate, int maxConcurrency) {
+            this.delegate = delegate;
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        void execute(Call<?> call) {
+            synchronized (this) {
+                if (running >= maxConcurrency) {
+                    queue.add(call);
+                    return;
+                }
+                running++;
+            }
+            dispatch(call);
+        }
+
+        private void dispatch(Call<?> call) {
+            while (call != null) {
+                final Call<?> current = call;
+                try {
+                    delegate.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                current.run();
+                            } finally {
+                                dispatch(poll());
+                            }
+                        }
+                    });
+                    return;
+                } catch (RuntimeException e) {
+                    current.future.completeExceptionally(e);
+                }
+                call = poll();
+            }
+        }
+
+        private synchronized Call<?> poll() {
+            Call<?> next = queue.poll();
+            if (next == null) {
+                running--;
+            }
+            return next;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.BaseDaoImpl;
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.db.DatabaseType;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.table.TableInfo;
+import java.lang.IllegalArgumentException;
+import java.lang.Object;
+import java.lang.String;
+import java.lang.StringBuilder;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public abstract class ChangeTracker<T, ID> {
+    public static final int UNCHANGED = -1;
+
+    private final Dao<T, ID> dao;
+
+    private final String tableName;
+
+    private final FieldType idField;
+
+    private final FieldType[] fieldTypes;
+
+    private final int versionIndex;
+
+    protected ChangeTracker(Dao<T, ID> dao, String[] fieldNames, int versionIndex) {
+        if (!(dao instanceof BaseDaoImpl)) {
+            throw new IllegalArgumentException("Change tracking requires a BaseDaoImpl, but got " + dao.getClass());
+        }
+        TableInfo<T, ID> tableInfo = ((BaseDaoImpl<T, ID>) dao).getTableInfo();
+        this.dao = dao;
+        this.tableName = tableInfo.getTableName();
+        this.idField = tableInfo.getIdField();
+        this.fieldTypes = new FieldType[fieldNames.length];
+        for (FieldType fieldType : tableInfo.getFieldTypes()) {
+            for (int i = 0; i < fieldNames.length; i++) {
+                if (fieldNames[i].equals(fieldType.getFieldName())) {
+                    fieldTypes[i] = fieldType;
+                }
+            }
+        }
+        this.versionIndex = versionIndex;
+    }
+
+    protected abstract Object copy(int index, Object value);
+
+    protected abstract boolean isChanged(int index, Object oldValue, Object newValue);
+
+    public Object[] snapshot(T data) throws SQLException {
+        Object[] snapshot = new Object[fieldTypes.length];
+        for (int i = 0; i < fieldTypes.length; i++) {
+            snapshot[i] = copy(i, fieldTypes[i].extractJavaFieldValue(data));
+        }
+        return snapshot;
+    }
+
+    public boolean isChanged(T data, Object[] snapshot) throws SQLException {
+        for (int i = 0; i < fieldTypes.length; i++) {
+            if (i != versionIndex && isChanged(i, snapshot[i], fieldTypes[i].extractJavaFieldValue(data))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int update(T data, Object[] snapshot) throws SQLException {
+        ConnectionSource connectionSource = dao.getConnectionSource();
+        DatabaseType databaseType = connectionSource.getDatabaseType();
+        Object[] values = new Object[fieldTypes.length];
+        List<Object> args = new ArrayList<Object>();
+        List<FieldType> argFieldTypes = new ArrayList<FieldType>();
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("UPDATE ");
+        databaseType.appendEscapedEntityName(sb, tableName);
+        sb.append(" SET ");
+        for (int i = 0; i < fieldTypes.length; i++) {
+            values[i] = fieldTypes[i].extractJavaFieldValue(data);
+            if (i != versionIndex && isChanged(i, snapshot[i], values[i])) {
+                appendSet(databaseType, sb, fieldTypes[i], args, argFieldTypes, values[i]);
+            }
+        }
+        if (args.isEmpty()) {
+            return UNCHANGED;
+        }
+        Object newVersion = null;
+        if (versionIndex >= 0) {
+            newVersion = fieldTypes[versionIndex].moveToNextValue(snapshot[versionIndex]);
+            appendSet(databaseType, sb, fieldTypes[versionIndex], args, argFieldTypes, newVersion);
+        }
+        sb.setLength(sb.length() - 1);
+        sb.append(" WHERE ");
+        appendWhere(databaseType, sb, idField, args, argFieldTypes, idField.extractJavaFieldValue(data));
+        if (versionIndex >= 0) {
+            sb.append(" AND ");
+            appendWhere(databaseType, sb, fieldTypes[versionIndex], args, argFieldTypes, snapshot[versionIndex]);
+        }
+        DatabaseConnection connection = connectionSource.getReadWriteConnection();
+        int rows;
+        try {
+            rows = connection.update(sb.toString(), args.toArray(), argFieldTypes.toArray(new FieldType[argFieldTypes.size()]));
+        } finally {
+            connectionSource.releaseConnection(connection);
+        }
+        if (rows > 0) {
+            for (int i = 0; i < fieldTypes.length; i++) {
+                snapshot[i] = copy(i, values[i]);
+            }
+            if (versionIndex >= 0) {
+                fieldTypes[versionIndex].assignField(data, newVersion, false, null);
+                snapshot[versionIndex] = newVersion;
+            }
+        }
+        return rows;
+    }
+
+    private static void appendSet(DatabaseType databaseType, StringBuilder sb, FieldType fieldType, List<Object> args, List<FieldType> argFieldTypes, Object value) throws SQLException {
+        appendWhere(databaseType, sb, fieldType, args, argFieldTypes, value);
+        sb.append(',');
+    }
+
+    private static void appendWhere(DatabaseType databaseType, StringBuilder sb, FieldType fieldType, List<Object> args, List<FieldType> argFieldTypes, Object value) throws SQLException {
+        databaseType.appendEscapedEntityName(sb, fieldType.getColumnName());
+        sb.append(" = ?");
+        args.add(fieldType.convertJavaFieldToSqlArgValue(value));
+        argFieldTypes.add(fieldType);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.Dao;
+import java.lang.Long;
+import java.lang.Object;
+import java.lang.Override;
+import java.lang.String;
+import java.util.Arrays;
+import java.util.Date;
+
+public final class ChangeTrackerModel$$ChangeTracker extends ChangeTracker<ChangeTrackerModel, Long> {
+    public ChangeTrackerModel$$ChangeTracker(Dao<ChangeTrackerModel, Long> dao) {
+        super(dao, new String[] {"name", "payload", "updated", "version"}, 3);
+    }
+
+    @Override
+    protected Object copy(int index, Object value) {
+        if (value == null) {
+            return null;
+        }
+        switch (index) {
+            case 1: return ((byte[]) value).clone();
+            case 2: return ((Date) value).clone();
+            default: return value;
+        }
+    }
+
+    @Override
+    protected boolean isChanged(int index, Object oldValue, Object newValue) {
+        switch (index) {
+            case 1: return !Arrays.equals((byte[]) oldValue, (byte[]) newValue);
+            default: return oldValue == null ? newValue != null : !oldValue.equals(newValue);
+        }
+    }
+}
\ No newline at end of file
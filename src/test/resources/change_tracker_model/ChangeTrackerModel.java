@@ -0,0 +1,25 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DataType;
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+import java.util.Date;
+
+@DatabaseTable
+public class ChangeTrackerModel {
+    @DatabaseField(generatedId = true)
+    private long id;
+
+    @DatabaseField
+    private String name;
+
+    @DatabaseField(dataType = DataType.BYTE_ARRAY)
+    private byte[] payload;
+
+    @DatabaseField
+    private Date updated;
+
+    @DatabaseField(version = true)
+    private int version;
+}
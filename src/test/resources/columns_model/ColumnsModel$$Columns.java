@@ -0,0 +1,79 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.stmt.PreparedQuery;
+import com.j256.ormlite.stmt.QueryBuilder;
+import com.j256.ormlite.stmt.StatementBuilder;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseResults;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+public final class ColumnsModel$$Columns {
+    public final long[] id;
+
+    public final double[] amount;
+
+    public final boolean[] paid;
+
+    public final int[] priority;
+
+    private ColumnsModel$$Columns(long[] id, double[] amount, boolean[] paid, int[] priority) {
+        this.id = id;
+        this.amount = amount;
+        this.paid = paid;
+        this.priority = priority;
+    }
+
+    public static ColumnsModel$$Columns queryForAll(Dao<ColumnsModel, ?> dao) throws SQLException {
+        return query(dao, dao.queryBuilder());
+    }
+
+    public static ColumnsModel$$Columns query(Dao<ColumnsModel, ?> dao, QueryBuilder<ColumnsModel, ?> queryBuilder) throws SQLException {
+        queryBuilder.selectColumns("id", "total", "paid", "priority");
+        PreparedQuery<ColumnsModel> query = queryBuilder.prepare();
+        int size = 0;
+        long[] idValues = new long[64];
+        double[] amountValues = new double[64];
+        boolean[] paidValues = new boolean[64];
+        int[] priorityValues = new int[64];
+        ConnectionSource connectionSource = dao.getConnectionSource();
+        DatabaseConnection connection = connectionSource.getReadOnlyConnection();
+        CompiledStatement statement = null;
+        DatabaseResults results = null;
+        try {
+            statement = query.compile(connection, StatementBuilder.StatementType.SELECT);
+            results = statement.runQuery(null);
+            int idColumn = results.findColumn("id");
+            int amountColumn = results.findColumn("total");
+            int paidColumn = results.findColumn("paid");
+            int priorityColumn = results.findColumn("priority");
+            boolean more = results.first();
+            while (more) {
+                if (size == idValues.length) {
+                    idValues = Arrays.copyOf(idValues, size * 2);
+                    amountValues = Arrays.copyOf(amountValues, size * 2);
+                    paidValues = Arrays.copyOf(paidValues, size * 2);
+                    priorityValues = Arrays.copyOf(priorityValues, size * 2);
+                }
+                idValues[size] = results.getLong(idColumn);
+                amountValues[size] = results.getDouble(amountColumn);
+                paidValues[size] = results.getBoolean(paidColumn);
+                priorityValues[size] = results.getInt(priorityColumn);
+                size++;
+                more = results.next();
+            }
+        } finally {
+            if (results != null) {
+                results.closeQuietly();
+            }
+            if (statement != null) {
+                statement.closeQuietly();
+            }
+            connectionSource.releaseConnection(connection);
+        }
+        return new ColumnsModel$$Columns(Arrays.copyOf(idValues, size), Arrays.copyOf(amountValues, size), Arrays.copyOf(paidValues, size), Arrays.copyOf(priorityValues, size));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DataType;
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+import java.util.Date;
+
+@DatabaseTable
+public class ColumnsModel {
+    @DatabaseField(generatedId = true)
+    private long id;
+
+    @DatabaseField(columnName = "total")
+    private double amount;
+
+    @DatabaseField
+    private Integer status;
+
+    @DatabaseField
+    private boolean paid;
+
+    @DatabaseField(canBeNull = false)
+    private Integer priority;
+
+    @DatabaseField(dataType = DataType.LONG_STRING)
+    private long reference;
+
+    @DatabaseField
+    private String description;
+
+    @DatabaseField
+    private Date created;
+}
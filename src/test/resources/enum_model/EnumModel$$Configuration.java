@@ -26,11 +26,12 @@ package com.koenv.ormlite.processor;
 
 import com.j256.ormlite.field.DatabaseFieldConfig;
 import com.j256.ormlite.table.DatabaseTableConfig;
-
 import java.util.ArrayList;
 import java.util.List;
 
 public final class EnumModel$$Configuration {
+    public static final long SCHEMA_HASH = -2139495976537953830L;
+
     public static List<DatabaseFieldConfig> getFieldConfigs() {
         List<DatabaseFieldConfig> list = new ArrayList<DatabaseFieldConfig>();
         DatabaseFieldConfig config = null;
@@ -0,0 +1,98 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.stmt.QueryBuilder;
+import com.j256.ormlite.stmt.SelectArg;
+import com.j256.ormlite.stmt.StatementBuilder;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseResults;
+import java.lang.Object;
+import java.lang.String;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+public final class Finder<T> {
+    private final String columnName;
+
+    private final Map<Dao<T, ?>, Statement> statements = new WeakHashMap<Dao<T, ?>, Statement>();
+
+    public Finder(String columnName) {
+        this.columnName = columnName;
+    }
+
+    private synchronized Statement getStatement(Dao<T, ?> dao) throws SQLException {
+        Statement statement = statements.get(dao);
+        if (statement == null) {
+            QueryBuilder<T, ?> queryBuilder = dao.queryBuilder();
+            SelectArg arg = new SelectArg();
+            queryBuilder.where().eq(columnName, arg);
+            statement = new Statement(queryBuilder.prepareStatementString(), arg.getFieldType());
+            statements.put(dao, statement);
+        }
+        return statement;
+    }
+
+    public List<T> query(Dao<T, ?> dao, Object value) throws SQLException {
+        return query(dao, value, -1);
+    }
+
+    public T queryForFirst(Dao<T, ?> dao, Object value) throws SQLException {
+        List<T> results = query(dao, value, 1);
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    private List<T> query(Dao<T, ?> dao, Object value, int maxRows) throws SQLException {
+        Statement statement = getStatement(dao);
+        ConnectionSource connectionSource = dao.getConnectionSource();
+        DatabaseConnection connection = connectionSource.getReadOnlyConnection();
+        CompiledStatement compiledStatement = null;
+        DatabaseResults results = null;
+        try {
+            compiledStatement = connection.compileStatement(statement.sql, StatementBuilder.StatementType.SELECT, new FieldType[] {statement.fieldType}, DatabaseConnection.DEFAULT_RESULT_FLAGS);
+            compiledStatement.setObject(0, statement.getSqlArgValue(value), statement.fieldType.getSqlType());
+            if (maxRows > 0) {
+                compiledStatement.setMaxRows(maxRows);
+            }
+            results = compiledStatement.runQuery(dao.getObjectCache());
+            List<T> list = new ArrayList<T>();
+            if (results.first()) {
+                do {
+                    list.add(dao.mapSelectStarRow(results));
+                } while (results.next());
+            }
+            return list;
+        } finally {
+            if (results != null) {
+                results.closeQuietly();
+            }
+            if (compiledStatement != null) {
+                compiledStatement.closeQuietly();
+            }
+            connectionSource.releaseConnection(connection);
+        }
+    }
+
+    private static final class Statement {
+        private final String sql;
+
+        private final FieldType fieldType;
+
+        Statement(String sql, FieldType fieldType) {
+            this.sql = sql;
+            this.fieldType = fieldType;
+        }
+
+        Object getSqlArgValue(Object value) throws SQLException {
+            if (value != null && fieldType.isForeign() && fieldType.getType().isInstance(value)) {
+                value = fieldType.getForeignIdField().extractJavaFieldValue(value);
+            }
+            return fieldType.convertJavaFieldToSqlArgValue(value);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.Dao;
+import java.lang.Long;
+import java.lang.String;
+import java.sql.SQLException;
+import java.util.List;
+
+public final class FinderModel$$Finders {
+    private static final Finder<FinderModel> EMAIL = new Finder<FinderModel>("email");
+
+    private static final Finder<FinderModel> NAME = new Finder<FinderModel>("user_name");
+
+    private static final Finder<FinderModel> AGE = new Finder<FinderModel>("age");
+
+    private FinderModel$$Finders() {
+    }
+
+    public static FinderModel findById(Dao<FinderModel, Long> dao, long id) throws SQLException {
+        return dao.queryForId(id);
+    }
+
+    public static FinderModel findByEmail(Dao<FinderModel, ?> dao, String email) throws SQLException {
+        return EMAIL.queryForFirst(dao, email);
+    }
+
+    public static FinderModel findByName(Dao<FinderModel, ?> dao, String name) throws SQLException {
+        return NAME.queryForFirst(dao, name);
+    }
+
+    public static List<FinderModel> findAllByAge(Dao<FinderModel, ?> dao, int age) throws SQLException {
+        return AGE.query(dao, age);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable
+public class FinderModel {
+    @DatabaseField(generatedId = true)
+    private long id;
+
+    @DatabaseField(unique = true)
+    private String email;
+
+    @DatabaseField(columnName = "user_name", uniqueIndex = true)
+    private String name;
+
+    @DatabaseField(index = true)
+    private int age;
+
+    @DatabaseField
+    private String description;
+}
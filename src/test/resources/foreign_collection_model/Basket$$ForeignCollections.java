@@ -0,0 +1,17 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.Dao;
+import java.lang.Long;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public final class Basket$$ForeignCollections {
+    private Basket$$ForeignCollections() {
+    }
+
+    public static Map<Long, List<Item>> loadItems(Dao<Basket, Long> dao, Collection<Basket> parents) throws SQLException {
+        return ForeignCollectionLoader.load(dao, parents, "items", Item.class, "basket", "position", true);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.field.ForeignCollectionField;
+import com.j256.ormlite.table.DatabaseTable;
+
+import java.util.Collection;
+
+@DatabaseTable
+public class Basket {
+    @DatabaseField(generatedId = true)
+    private long id;
+
+    @ForeignCollectionField(foreignFieldName = "basket", orderColumnName = "position")
+    private Collection<Item> items;
+}
@@ -0,0 +1,90 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.BaseDaoImpl;
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.stmt.QueryBuilder;
+import com.j256.ormlite.stmt.SelectArg;
+import com.j256.ormlite.table.TableInfo;
+import java.lang.Class;
+import java.lang.IllegalArgumentException;
+import java.lang.Math;
+import java.lang.Object;
+import java.lang.String;
+import java.lang.SuppressWarnings;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class ForeignCollectionLoader {
+    private static final int MAX_VARIABLES = 999;
+
+    private ForeignCollectionLoader() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <P, ID, C> Map<ID, List<C>> load(Dao<P, ID> dao, Collection<P> parents, String collectionFieldName, Class<C> childClass, String foreignFieldName, String orderColumnName, boolean orderAscending) throws SQLException {
+        Dao<C, ?> childDao = DaoManager.createDao(dao.getConnectionSource(), childClass);
+        TableInfo<P, ID> tableInfo = getTableInfo(dao);
+        FieldType idField = tableInfo.getIdField();
+        FieldType collectionField = null;
+        for (FieldType fieldType : tableInfo.getFieldTypes()) {
+            if (fieldType.getFieldName().equals(collectionFieldName)) {
+                collectionField = fieldType;
+            }
+        }
+        FieldType foreignField = null;
+        for (FieldType fieldType : getTableInfo(childDao).getFieldTypes()) {
+            if (fieldType.getType() == tableInfo.getDataClass() && (foreignFieldName == null || fieldType.getFieldName().equals(foreignFieldName))) {
+                foreignField = fieldType;
+                break;
+            }
+        }
+        if (idField == null || collectionField == null || foreignField == null) {
+            throw new SQLException("Could not find the foreign field of collection " + collectionFieldName + " in " + tableInfo.getDataClass());
+        }
+        Map<ID, P> parentsById = new HashMap<ID, P>();
+        Map<ID, List<C>> children = new LinkedHashMap<ID, List<C>>();
+        for (P parent : parents) {
+            ID id = (ID) idField.extractJavaFieldValue(parent);
+            parentsById.put(id, parent);
+            children.put(id, new ArrayList<C>());
+        }
+        List<ID> ids = new ArrayList<ID>(children.keySet());
+        for (int start = 0; start < ids.size(); start += MAX_VARIABLES) {
+            List<ID> chunk = ids.subList(start, Math.min(start + MAX_VARIABLES, ids.size()));
+            SelectArg[] args = new SelectArg[chunk.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = new SelectArg(chunk.get(i));
+            }
+            QueryBuilder<C, ?> queryBuilder = childDao.queryBuilder();
+            if (orderColumnName != null) {
+                queryBuilder.orderBy(orderColumnName, orderAscending);
+            }
+            queryBuilder.where().in(foreignField.getColumnName(), (Object[]) args);
+            for (C child : queryBuilder.query()) {
+                ID id = (ID) foreignField.extractJavaFieldValue(child);
+                foreignField.assignField(child, parentsById.get(id), true, null);
+                children.get(id).add(child);
+            }
+        }
+        if (collectionField.getType() == Collection.class) {
+            for (P parent : parents) {
+                collectionField.assignField(parent, children.get(idField.extractJavaFieldValue(parent)), false, null);
+            }
+        }
+        return children;
+    }
+
+    private static <T, ID> TableInfo<T, ID> getTableInfo(Dao<T, ID> dao) {
+        if (!(dao instanceof BaseDaoImpl)) {
+            throw new IllegalArgumentException("Batched loading requires a BaseDaoImpl, but got " + dao.getClass());
+        }
+        return ((BaseDaoImpl<T, ID>) dao).getTableInfo();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable
+public class Item {
+    @DatabaseField(generatedId = true)
+    private long id;
+
+    @DatabaseField(foreign = true, index = true)
+    private Basket basket;
+
+    @DatabaseField
+    private int position;
+}
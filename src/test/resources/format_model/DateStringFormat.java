@@ -0,0 +1,190 @@
+package com.koenv.ormlite.processor;
+
+import java.lang.String;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+
+public final class DateStringFormat {
+    public static final int YEAR = 0;
+
+    public static final int MONTH = 1;
+
+    public static final int DAY = 2;
+
+    public static final int HOUR = 3;
+
+    public static final int MINUTE = 4;
+
+    public static final int SECOND = 5;
+
+    public static final int MILLISECOND = 6;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private static final long GREGORIAN_CUTOVER = -12219292800000L;
+
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000};
+
+    private final String pattern;
+
+    private final char[] template;
+
+    private final boolean[] literal;
+
+    private final int[] fields;
+
+    private final TimeZone timeZone;
+
+    public DateStringFormat(String pattern, String template, int... fields) {
+        this.pattern = pattern;
+        this.template = template.toCharArray();
+        this.fields = fields;
+        literal = new boolean[this.template.length];
+        Arrays.fill(literal, true);
+        for (int i = 0; i < fields.length; i += 3) {
+            Arrays.fill(literal, fields[i + 1], fields[i + 1] + fields[i + 2], false);
+        }
+        timeZone = TimeZone.getDefault();
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    private SimpleDateFormat newDateFormat() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat(pattern);
+        dateFormat.setTimeZone(timeZone);
+        return dateFormat;
+    }
+
+    public String format(Date date) {
+        long millis = date.getTime();
+        long local = millis + timeZone.getOffset(millis);
+        if (local < GREGORIAN_CUTOVER) {
+            return newDateFormat().format(date);
+        }
+        long days = local / MILLIS_PER_DAY;
+        int millisOfDay = (int) (local - days * MILLIS_PER_DAY);
+        if (millisOfDay < 0) {
+            days--;
+            millisOfDay += MILLIS_PER_DAY;
+        }
+        // the civil date of a day since 1970-01-01, counted in eras of 400 years from 0000-03-01
+        long shifted = days + 719468;
+        long era = shifted / 146097;
+        int dayOfEra = (int) (shifted - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        char[] chars = template.clone();
+        for (int i = 0; i < fields.length; i += 3) {
+            long value;
+            switch (fields[i]) {
+                case YEAR:
+                    value = year;
+                    break;
+                case MONTH:
+                    value = month;
+                    break;
+                case DAY:
+                    value = day;
+                    break;
+                case HOUR:
+                    value = millisOfDay / 3600000;
+                    break;
+                case MINUTE:
+                    value = millisOfDay / 60000 % 60;
+                    break;
+                case SECOND:
+                    value = millisOfDay / 1000 % 60;
+                    break;
+                default:
+                    value = millisOfDay % 1000;
+                    break;
+            }
+            int offset = fields[i + 1];
+            int length = fields[i + 2];
+            if (value >= POWERS_OF_TEN[length]) {
+                return newDateFormat().format(date);
+            }
+            for (int j = offset + length - 1; j >= offset; j--) {
+                chars[j] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+        return new String(chars);
+    }
+
+    public Date parse(String value) throws ParseException {
+        if (value.length() != template.length) {
+            return newDateFormat().parse(value);
+        }
+        for (int i = 0; i < template.length; i++) {
+            if (literal[i] && value.charAt(i) != template[i]) {
+                return newDateFormat().parse(value);
+            }
+        }
+        int year = 1970;
+        int month = 1;
+        int day = 1;
+        long millisOfDay = 0;
+        for (int i = 0; i < fields.length; i += 3) {
+            int number = 0;
+            for (int j = fields[i + 1]; j < fields[i + 1] + fields[i + 2]; j++) {
+                char c = value.charAt(j);
+                if (c < '0' || c > '9') {
+                    return newDateFormat().parse(value);
+                }
+                number = number * 10 + c - '0';
+            }
+            switch (fields[i]) {
+                case YEAR:
+                    year = number;
+                    break;
+                case MONTH:
+                    month = number;
+                    break;
+                case DAY:
+                    day = number;
+                    break;
+                case HOUR:
+                    millisOfDay += number * 3600000L;
+                    break;
+                case MINUTE:
+                    millisOfDay += number * 60000L;
+                    break;
+                case SECOND:
+                    millisOfDay += number * 1000L;
+                    break;
+                default:
+                    millisOfDay += number;
+                    break;
+            }
+        }
+        if (month < 1 || month > 12 || year < 1583) {
+            return newDateFormat().parse(value);
+        }
+        // the days since 1970-01-01 of a civil date, the inverse of format
+        int shiftedYear = month <= 2 ? year - 1 : year;
+        int era = shiftedYear / 400;
+        int yearOfEra = shiftedYear - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long days = era * 146097L + dayOfEra - 719468;
+        long local = days * MILLIS_PER_DAY + millisOfDay;
+        int offset = timeZone.getOffset(local - timeZone.getRawOffset());
+        long millis = local - offset;
+        // near an offset change a local time can have no or two instants, leave those to the calendar
+        if (timeZone.getOffset(millis - MILLIS_PER_DAY) != offset || timeZone.getOffset(millis) != offset
+                || timeZone.getOffset(millis + MILLIS_PER_DAY) != offset) {
+            return newDateFormat().parse(value);
+        }
+        return new Date(millis);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.field.SqlType;
+import com.j256.ormlite.field.types.DateStringType;
+import com.j256.ormlite.misc.SqlExceptionUtil;
+import java.lang.Object;
+import java.lang.Override;
+import java.lang.String;
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.util.Date;
+
+public abstract class DateStringPersister extends DateStringType {
+    private final DateStringFormat format;
+
+    protected DateStringPersister(DateStringFormat format) {
+        super(SqlType.STRING, new Class<?>[0]);
+        this.format = format;
+    }
+
+    @Override
+    public Object makeConfigObject(FieldType fieldType) {
+        // the format is compiled, so the field does not need a thread-local date format
+        return null;
+    }
+
+    @Override
+    public Object parseDefaultString(FieldType fieldType, String defaultStr) throws SQLException {
+        try {
+            return format.format(format.parse(defaultStr));
+        } catch (ParseException e) {
+            throw SqlExceptionUtil.create("Problems with field " + fieldType + " parsing default date-string '" + defaultStr + "' using '" + format.getPattern() + "'", e);
+        }
+    }
+
+    @Override
+    public Object sqlArgToJava(FieldType fieldType, Object sqlArg, int columnPos) throws SQLException {
+        try {
+            return format.parse((String) sqlArg);
+        } catch (ParseException e) {
+            throw SqlExceptionUtil.create("Problems with column " + columnPos + " parsing date-string '" + sqlArg + "' using '" + format.getPattern() + "'", e);
+        }
+    }
+
+    @Override
+    public Object javaToSqlArg(FieldType fieldType, Object javaObject) {
+        return format.format((Date) javaObject);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DataType;
+import com.j256.ormlite.field.DatabaseFieldConfig;
+import com.j256.ormlite.table.DatabaseTableConfig;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class Event$$Configuration {
+    public static final long SCHEMA_HASH = 6785244869042069296L;
+
+    public static List<DatabaseFieldConfig> getFieldConfigs() {
+        List<DatabaseFieldConfig> list = new ArrayList<DatabaseFieldConfig>();
+        DatabaseFieldConfig config = null;
+        config = new DatabaseFieldConfig();
+        config.setFieldName("id");
+        config.setGeneratedId(true);
+        list.add(config);
+        config = new DatabaseFieldConfig();
+        config.setFieldName("createdAt");
+        config.setDataType(DataType.DATE_STRING);
+        config.setDataPersister(Event$$Persisters.CreatedAt.getSingleton());
+        list.add(config);
+        config = new DatabaseFieldConfig();
+        config.setFieldName("syncedAt");
+        config.setDataType(DataType.DATE_STRING);
+        config.setFormat("yyyy-MM-dd'T'HH:mm:ss.SSS");
+        config.setDataPersister(Event$$Persisters.SyncedAt.getSingleton());
+        list.add(config);
+        config = new DatabaseFieldConfig();
+        config.setFieldName("day");
+        config.setDataType(DataType.DATE_STRING);
+        config.setFormat("yyyyMMdd");
+        config.setDataPersister(Event$$Persisters.Day.getSingleton());
+        list.add(config);
+        config = new DatabaseFieldConfig();
+        config.setFieldName("displayDate");
+        config.setDataType(DataType.DATE_STRING);
+        config.setFormat("EEE, d MMM yyyy");
+        list.add(config);
+        return list;
+    }
+
+    public static DatabaseTableConfig<Event> getTableConfig() {
+        DatabaseTableConfig<Event> config = new DatabaseTableConfig<Event>();
+        config.setDataClass(Event.class);
+        config.setTableName("events");
+        config.setFieldConfigs(getFieldConfigs());
+        return config;
+    }
+}
\ No newline at end of file
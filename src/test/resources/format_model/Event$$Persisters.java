@@ -0,0 +1,42 @@
+package com.koenv.ormlite.processor;
+
+public final class Event$$Persisters {
+    private Event$$Persisters() {
+    }
+
+    public static final class CreatedAt extends DateStringPersister {
+        private static final CreatedAt SINGLETON = new CreatedAt();
+
+        private CreatedAt() {
+            super(new DateStringFormat("yyyy-MM-dd HH:mm:ss.SSSSSS", "0000-00-00 00:00:00.000000", DateStringFormat.YEAR, 0, 4, DateStringFormat.MONTH, 5, 2, DateStringFormat.DAY, 8, 2, DateStringFormat.HOUR, 11, 2, DateStringFormat.MINUTE, 14, 2, DateStringFormat.SECOND, 17, 2, DateStringFormat.MILLISECOND, 20, 6));
+        }
+
+        public static CreatedAt getSingleton() {
+            return SINGLETON;
+        }
+    }
+
+    public static final class SyncedAt extends DateStringPersister {
+        private static final SyncedAt SINGLETON = new SyncedAt();
+
+        private SyncedAt() {
+            super(new DateStringFormat("yyyy-MM-dd'T'HH:mm:ss.SSS", "0000-00-00T00:00:00.000", DateStringFormat.YEAR, 0, 4, DateStringFormat.MONTH, 5, 2, DateStringFormat.DAY, 8, 2, DateStringFormat.HOUR, 11, 2, DateStringFormat.MINUTE, 14, 2, DateStringFormat.SECOND, 17, 2, DateStringFormat.MILLISECOND, 20, 3));
+        }
+
+        public static SyncedAt getSingleton() {
+            return SINGLETON;
+        }
+    }
+
+    public static final class Day extends DateStringPersister {
+        private static final Day SINGLETON = new Day();
+
+        private Day() {
+            super(new DateStringFormat("yyyyMMdd", "00000000", DateStringFormat.YEAR, 0, 4, DateStringFormat.MONTH, 4, 2, DateStringFormat.DAY, 6, 2));
+        }
+
+        public static Day getSingleton() {
+            return SINGLETON;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DataType;
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+import java.util.Date;
+
+@DatabaseTable(tableName = "events")
+public class Event {
+    @DatabaseField(generatedId = true)
+    private long id;
+
+    @DatabaseField(dataType = DataType.DATE_STRING)
+    private Date createdAt;
+
+    @DatabaseField(dataType = DataType.DATE_STRING, format = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private Date syncedAt;
+
+    @DatabaseField(dataType = DataType.DATE_STRING, format = "yyyyMMdd")
+    private Date day;
+
+    @DatabaseField(dataType = DataType.DATE_STRING, format = "EEE, d MMM yyyy")
+    private Date displayDate;
+}
@@ -0,0 +1,46 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.stmt.QueryBuilder;
+import java.lang.Long;
+import java.lang.String;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+public final class Document$$Lazy {
+    private static final String[] LAZY_FIELD_NAMES = {"payload", "attachment"};
+
+    private Document$$Lazy() {
+    }
+
+    public static QueryBuilder<Document, Long> queryBuilder(Dao<Document, Long> dao) {
+        return LazyLoader.queryBuilder(dao, LAZY_FIELD_NAMES);
+    }
+
+    public static List<Document> queryForAll(Dao<Document, Long> dao) throws SQLException {
+        return queryBuilder(dao).query();
+    }
+
+    public static Document queryForId(Dao<Document, Long> dao, Long id) throws SQLException {
+        QueryBuilder<Document, Long> queryBuilder = queryBuilder(dao);
+        queryBuilder.where().idEq(id);
+        return queryBuilder.queryForFirst();
+    }
+
+    public static String getPayload(Dao<Document, Long> dao, Document data) throws SQLException {
+        return (String) LazyLoader.load(dao, data, "payload");
+    }
+
+    public static void prefetchPayload(Dao<Document, Long> dao, Collection<Document> entities) throws SQLException {
+        LazyLoader.prefetch(dao, entities, "payload");
+    }
+
+    public static byte[] getAttachment(Dao<Document, Long> dao, Document data) throws SQLException {
+        return (byte[]) LazyLoader.load(dao, data, "attachment");
+    }
+
+    public static void prefetchAttachment(Dao<Document, Long> dao, Collection<Document> entities) throws SQLException {
+        LazyLoader.prefetch(dao, entities, "attachment");
+    }
+}
\ No newline at end of file
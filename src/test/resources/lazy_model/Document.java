@@ -0,0 +1,22 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DataType;
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable(tableName = "documents")
+public class Document {
+    @DatabaseField(generatedId = true)
+    private long id;
+
+    @DatabaseField
+    private String title;
+
+    @DatabaseField(dataType = DataType.LONG_STRING)
+    @Lazy
+    private String payload;
+
+    @DatabaseField(dataType = DataType.BYTE_ARRAY)
+    @Lazy
+    private byte[] attachment;
+}
@@ -0,0 +1,111 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.BaseDaoImpl;
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.stmt.QueryBuilder;
+import com.j256.ormlite.stmt.SelectArg;
+import com.j256.ormlite.table.TableInfo;
+import java.lang.IllegalArgumentException;
+import java.lang.Math;
+import java.lang.Object;
+import java.lang.String;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class LazyLoader {
+    private static final int MAX_VARIABLES = 999;
+
+    private LazyLoader() {
+    }
+
+    public static <T, ID> QueryBuilder<T, ID> queryBuilder(Dao<T, ID> dao, String... lazyFieldNames) {
+        List<String> lazy = Arrays.asList(lazyFieldNames);
+        List<String> columns = new ArrayList<String>();
+        for (FieldType fieldType : getTableInfo(dao).getFieldTypes()) {
+            if (!fieldType.isForeignCollection() && !lazy.contains(fieldType.getFieldName())) {
+                columns.add(fieldType.getColumnName());
+            }
+        }
+        QueryBuilder<T, ID> queryBuilder = dao.queryBuilder();
+        queryBuilder.selectColumns(columns);
+        return queryBuilder;
+    }
+
+    public static <T, ID> Object load(Dao<T, ID> dao, T data, String fieldName) throws SQLException {
+        TableInfo<T, ID> tableInfo = getTableInfo(dao);
+        FieldType fieldType = getFieldType(tableInfo, fieldName);
+        Object value = fieldType.extractJavaFieldValue(data);
+        if (value != null) {
+            return value;
+        }
+        FieldType idField = tableInfo.getIdField();
+        QueryBuilder<T, ID> queryBuilder = dao.queryBuilder();
+        queryBuilder.selectColumns(fieldType.getColumnName());
+        queryBuilder.where().eq(idField.getColumnName(), new SelectArg(idField.extractJavaFieldValue(data)));
+        T loaded = queryBuilder.queryForFirst();
+        if (loaded == null) {
+            return null;
+        }
+        value = fieldType.extractJavaFieldValue(loaded);
+        fieldType.assignField(data, value, false, null);
+        return value;
+    }
+
+    public static <T, ID> void prefetch(Dao<T, ID> dao, Collection<T> entities, String fieldName) throws SQLException {
+        TableInfo<T, ID> tableInfo = getTableInfo(dao);
+        FieldType fieldType = getFieldType(tableInfo, fieldName);
+        FieldType idField = tableInfo.getIdField();
+        Map<Object, List<T>> pending = new HashMap<Object, List<T>>();
+        for (T data : entities) {
+            if (fieldType.extractJavaFieldValue(data) != null) {
+                continue;
+            }
+            Object id = idField.extractJavaFieldValue(data);
+            List<T> sameId = pending.get(id);
+            if (sameId == null) {
+                sameId = new ArrayList<T>();
+                pending.put(id, sameId);
+            }
+            sameId.add(data);
+        }
+        List<Object> ids = new ArrayList<Object>(pending.keySet());
+        for (int start = 0; start < ids.size(); start += MAX_VARIABLES) {
+            List<Object> chunk = ids.subList(start, Math.min(start + MAX_VARIABLES, ids.size()));
+            SelectArg[] args = new SelectArg[chunk.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = new SelectArg(chunk.get(i));
+            }
+            QueryBuilder<T, ID> queryBuilder = dao.queryBuilder();
+            queryBuilder.selectColumns(fieldType.getColumnName());
+            queryBuilder.where().in(idField.getColumnName(), (Object[]) args);
+            for (T loaded : queryBuilder.query()) {
+                Object value = fieldType.extractJavaFieldValue(loaded);
+                for (T data : pending.get(idField.extractJavaFieldValue(loaded))) {
+                    fieldType.assignField(data, value, false, null);
+                }
+            }
+        }
+    }
+
+    private static FieldType getFieldType(TableInfo<?, ?> tableInfo, String fieldName) throws SQLException {
+        for (FieldType fieldType : tableInfo.getFieldTypes()) {
+            if (fieldType.getFieldName().equals(fieldName)) {
+                return fieldType;
+            }
+        }
+        throw new SQLException("Could not find field " + fieldName + " in " + tableInfo.getDataClass());
+    }
+
+    private static <T, ID> TableInfo<T, ID> getTableInfo(Dao<T, ID> dao) {
+        if (!(dao instanceof BaseDaoImpl)) {
+            throw new IllegalArgumentException("Lazy loading requires a BaseDaoImpl, but got " + dao.getClass());
+        }
+        return ((BaseDaoImpl<T, ID>) dao).getTableInfo();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable(tableName = "customers")
+@SchemaVersion(3)
+public class Customer {
+    @DatabaseField(generatedId = true)
+    private long id;
+
+    @DatabaseField(index = true)
+    @Searchable
+    private String name;
+
+    @DatabaseField(indexName = "customers_city_idx")
+    @Searchable
+    private String city;
+
+    @DatabaseField
+    private String email;
+}
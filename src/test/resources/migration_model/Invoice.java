@@ -0,0 +1,20 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable(tableName = "invoices")
+public class Invoice {
+    @DatabaseField(generatedId = true)
+    private long id;
+
+    @DatabaseField(foreign = true)
+    private Customer customer;
+
+    @DatabaseField(canBeNull = false)
+    private long amount;
+
+    @DatabaseField
+    @Searchable
+    private String description;
+}
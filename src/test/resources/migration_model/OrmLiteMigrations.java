@@ -0,0 +1,69 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.misc.TransactionManager;
+import com.j256.ormlite.support.ConnectionSource;
+import java.lang.Override;
+import java.lang.Void;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+
+public final class OrmLiteMigrations {
+    public static final int SCHEMA_VERSION = 3;
+
+    private OrmLiteMigrations() {
+    }
+
+    private static void migrateFrom1(final ConnectionSource connectionSource) throws SQLException {
+        // a failure halfway through a rebuild would otherwise leave the renamed table behind
+        TransactionManager.callInTransaction(connectionSource, new Callable<Void>() {
+            @Override
+            public Void call() throws SQLException {
+                SchemaMigration.dropSearchTable(connectionSource, "customers");
+                SchemaMigration.addColumn(connectionSource, Customer$$Configuration.getTableConfig(), "city");
+                SchemaMigration.addColumn(connectionSource, Customer$$Configuration.getTableConfig(), "email");
+                SchemaMigration.createIndex(connectionSource, "customers", "customers_city_idx", false, "city");
+                Customer$$Search.createTable(connectionSource);
+                SchemaMigration.dropSearchTable(connectionSource, "invoices");
+                SchemaMigration.startRebuild(connectionSource, "invoices");
+                SchemaMigration.createTable(connectionSource, Invoice$$Configuration.getTableConfig());
+                SchemaMigration.finishRebuild(connectionSource, "invoices", "id", "customer_id", "amount");
+                Invoice$$Search.createTable(connectionSource);
+                SchemaMigration.dropTable(connectionSource, "legacy");
+                return null;
+            }
+        });
+    }
+
+    private static void migrateFrom2(final ConnectionSource connectionSource) throws SQLException {
+        // a failure halfway through a rebuild would otherwise leave the renamed table behind
+        TransactionManager.callInTransaction(connectionSource, new Callable<Void>() {
+            @Override
+            public Void call() throws SQLException {
+                SchemaMigration.dropSearchTable(connectionSource, "customers");
+                SchemaMigration.addColumn(connectionSource, Customer$$Configuration.getTableConfig(), "email");
+                SchemaMigration.createIndex(connectionSource, "customers", "customers_city_idx", false, "city");
+                Customer$$Search.createTable(connectionSource);
+                SchemaMigration.startRebuild(connectionSource, "invoices");
+                SchemaMigration.createTable(connectionSource, Invoice$$Configuration.getTableConfig());
+                SchemaMigration.finishRebuild(connectionSource, "invoices", "id", "customer_id", "amount");
+                Invoice$$Search.createTable(connectionSource);
+                return null;
+            }
+        });
+    }
+
+    public static void migrate(ConnectionSource connectionSource, int oldVersion) throws SQLException {
+        switch (oldVersion) {
+            case 1:
+                migrateFrom1(connectionSource);
+                break;
+            case 2:
+                migrateFrom2(connectionSource);
+                break;
+            case SCHEMA_VERSION:
+                break;
+            default:
+                throw new SQLException("There is no schema snapshot to migrate from version " + oldVersion);
+        }
+    }
+}
\ No newline at end of file
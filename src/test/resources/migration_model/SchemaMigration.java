@@ -0,0 +1,145 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.db.DatabaseType;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.table.DatabaseTableConfig;
+import com.j256.ormlite.table.TableUtils;
+import java.lang.String;
+import java.lang.StringBuilder;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public final class SchemaMigration {
+    private SchemaMigration() {
+    }
+
+    public static <T> void createTable(ConnectionSource connectionSource, DatabaseTableConfig<T> config) throws SQLException {
+        if (connectionSource.getDatabaseType().isEntityNamesMustBeUpCase()) {
+            config.setTableName(config.getTableName().toUpperCase());
+        }
+        TableUtils.createTable(connectionSource, config);
+    }
+
+    public static void dropTable(ConnectionSource connectionSource, String tableName) throws SQLException {
+        dropSearchTable(connectionSource, tableName);
+        StringBuilder sb = new StringBuilder("DROP TABLE IF EXISTS ");
+        appendEntityName(sb, connectionSource.getDatabaseType(), tableName);
+        execute(connectionSource, Collections.singletonList(sb.toString()));
+    }
+
+    public static void dropSearchTable(ConnectionSource connectionSource, String tableName) throws SQLException {
+        DatabaseType databaseType = connectionSource.getDatabaseType();
+        List<String> statements = new ArrayList<String>();
+        for (String suffix : new String[]{"_bu", "_bd", "_au", "_ai", "_ad"}) {
+            StringBuilder sb = new StringBuilder("DROP TRIGGER IF EXISTS ");
+            appendEntityName(sb, databaseType, tableName + "_fts" + suffix);
+            statements.add(sb.toString());
+        }
+        StringBuilder sb = new StringBuilder("DROP TABLE IF EXISTS ");
+        appendEntityName(sb, databaseType, tableName + "_fts");
+        statements.add(sb.toString());
+        execute(connectionSource, statements);
+    }
+
+    public static <T> void addColumn(ConnectionSource connectionSource, DatabaseTableConfig<T> config, String fieldName) throws SQLException {
+        DatabaseType databaseType = connectionSource.getDatabaseType();
+        config.extractFieldTypes(connectionSource);
+        FieldType fieldType = null;
+        for (FieldType type : config.getFieldTypes(databaseType)) {
+            if (type.getFieldName().equals(fieldName)) {
+                fieldType = type;
+            }
+        }
+        if (fieldType == null) {
+            throw new SQLException("Could not find field " + fieldName + " in " + config.getDataClass());
+        }
+        StringBuilder sb = new StringBuilder("ALTER TABLE ");
+        appendEntityName(sb, databaseType, config.getTableName());
+        sb.append(" ADD COLUMN ");
+        List<String> statementsBefore = new ArrayList<String>();
+        List<String> statementsAfter = new ArrayList<String>();
+        if (fieldType.getColumnDefinition() == null) {
+            // the additional arguments are table constraints, which the processor does not add columns with
+            databaseType.appendColumnArg(config.getTableName(), sb, fieldType, new ArrayList<String>(), statementsBefore, statementsAfter, new ArrayList<String>());
+        } else {
+            databaseType.appendEscapedEntityName(sb, fieldType.getColumnName());
+            sb.append(' ').append(fieldType.getColumnDefinition());
+        }
+        List<String> statements = new ArrayList<String>(statementsBefore);
+        statements.add(sb.toString());
+        statements.addAll(statementsAfter);
+        execute(connectionSource, statements);
+    }
+
+    public static void createIndex(ConnectionSource connectionSource, String tableName, String indexName, boolean unique, String... columnNames) throws SQLException {
+        DatabaseType databaseType = connectionSource.getDatabaseType();
+        StringBuilder sb = new StringBuilder(unique ? "CREATE UNIQUE INDEX " : "CREATE INDEX ");
+        appendEntityName(sb, databaseType, indexName);
+        sb.append(" ON ");
+        appendEntityName(sb, databaseType, tableName);
+        sb.append(" (");
+        for (int i = 0; i < columnNames.length; i++) {
+            sb.append(i == 0 ? "" : ", ");
+            appendEntityName(sb, databaseType, columnNames[i]);
+        }
+        sb.append(')');
+        execute(connectionSource, Collections.singletonList(sb.toString()));
+    }
+
+    public static void dropIndex(ConnectionSource connectionSource, String indexName) throws SQLException {
+        StringBuilder sb = new StringBuilder("DROP INDEX IF EXISTS ");
+        appendEntityName(sb, connectionSource.getDatabaseType(), indexName);
+        execute(connectionSource, Collections.singletonList(sb.toString()));
+    }
+
+    public static void startRebuild(ConnectionSource connectionSource, String tableName, String... indexNames) throws SQLException {
+        for (String indexName : indexNames) {
+            dropIndex(connectionSource, indexName);
+        }
+        DatabaseType databaseType = connectionSource.getDatabaseType();
+        StringBuilder sb = new StringBuilder("ALTER TABLE ");
+        appendEntityName(sb, databaseType, tableName);
+        sb.append(" RENAME TO ");
+        appendEntityName(sb, databaseType, tableName + "_old");
+        execute(connectionSource, Collections.singletonList(sb.toString()));
+    }
+
+    public static void finishRebuild(ConnectionSource connectionSource, String tableName, String... columnNames) throws SQLException {
+        DatabaseType databaseType = connectionSource.getDatabaseType();
+        StringBuilder columns = new StringBuilder();
+        for (int i = 0; i < columnNames.length; i++) {
+            columns.append(i == 0 ? "" : ", ");
+            appendEntityName(columns, databaseType, columnNames[i]);
+        }
+        StringBuilder insert = new StringBuilder("INSERT INTO ");
+        appendEntityName(insert, databaseType, tableName);
+        insert.append(" (").append(columns).append(") SELECT ").append(columns).append(" FROM ");
+        appendEntityName(insert, databaseType, tableName + "_old");
+        StringBuilder drop = new StringBuilder("DROP TABLE ");
+        appendEntityName(drop, databaseType, tableName + "_old");
+        execute(connectionSource, Arrays.asList(insert.toString(), drop.toString()));
+    }
+
+    private static void appendEntityName(StringBuilder sb, DatabaseType databaseType, String name) {
+        if (databaseType.isEntityNamesMustBeUpCase()) {
+            name = name.toUpperCase();
+        }
+        databaseType.appendEscapedEntityName(sb, name);
+    }
+
+    private static void execute(ConnectionSource connectionSource, List<String> statements) throws SQLException {
+        DatabaseConnection connection = connectionSource.getReadWriteConnection();
+        try {
+            for (String statement : statements) {
+                connection.executeStatement(statement, DatabaseConnection.DEFAULT_RESULT_FLAGS);
+            }
+        } finally {
+            connectionSource.releaseConnection(connection);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable(tableName = "accounts")
+public class Account {
+    @DatabaseField(id = true)
+    private String email;
+
+    @DatabaseField
+    private String name;
+}
@@ -0,0 +1,13 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable(tableName = "orders")
+public class Order {
+    @DatabaseField(generatedId = true)
+    private long id;
+
+    @DatabaseField(foreign = true)
+    private Account account;
+}
@@ -0,0 +1,118 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.field.SqlType;
+import com.j256.ormlite.stmt.StatementBuilder;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseResults;
+import java.lang.Double;
+import java.lang.Override;
+import java.lang.String;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public final class FullTextSearch {
+    private FullTextSearch() {
+    }
+
+    public static void execute(ConnectionSource connectionSource, String... statements) throws SQLException {
+        DatabaseConnection connection = connectionSource.getReadWriteConnection();
+        try {
+            for (String statement : statements) {
+                connection.executeStatement(statement, DatabaseConnection.DEFAULT_RESULT_FLAGS);
+            }
+        } finally {
+            connectionSource.releaseConnection(connection);
+        }
+    }
+
+    public static void createTable(ConnectionSource connectionSource, String existsQuery, String[] statements, String rebuildStatement) throws SQLException {
+        DatabaseConnection connection = connectionSource.getReadWriteConnection();
+        try {
+            boolean exists = connection.queryForLong(existsQuery) > 0;
+            for (String statement : statements) {
+                connection.executeStatement(statement, DatabaseConnection.DEFAULT_RESULT_FLAGS);
+            }
+            if (!exists) {
+                connection.executeStatement(rebuildStatement, DatabaseConnection.DEFAULT_RESULT_FLAGS);
+            }
+        } finally {
+            connectionSource.releaseConnection(connection);
+        }
+    }
+
+    public static <T> List<T> search(Dao<T, ?> dao, String query, String match, boolean rankInMemory) throws SQLException {
+        List<Ranked<T>> ranked = new ArrayList<Ranked<T>>();
+        ConnectionSource connectionSource = dao.getConnectionSource();
+        DatabaseConnection connection = connectionSource.getReadOnlyConnection();
+        CompiledStatement statement = null;
+        DatabaseResults results = null;
+        try {
+            statement = connection.compileStatement(query, StatementBuilder.StatementType.SELECT, new FieldType[0], DatabaseConnection.DEFAULT_RESULT_FLAGS);
+            statement.setObject(0, match, SqlType.STRING);
+            results = statement.runQuery(dao.getObjectCache());
+            if (results.first()) {
+                do {
+                    double rank = rankInMemory ? rank(results.getBytes(results.getColumnCount() - 1)) : 0;
+                    ranked.add(new Ranked<T>(dao.mapSelectStarRow(results), rank));
+                } while (results.next());
+            }
+        } finally {
+            if (results != null) {
+                results.closeQuietly();
+            }
+            if (statement != null) {
+                statement.closeQuietly();
+            }
+            connectionSource.releaseConnection(connection);
+        }
+        if (rankInMemory) {
+            Collections.sort(ranked, new Comparator<Ranked<T>>() {
+                @Override
+                public int compare(Ranked<T> lhs, Ranked<T> rhs) {
+                    return Double.compare(rhs.rank, lhs.rank);
+                }
+            });
+        }
+        List<T> list = new ArrayList<T>(ranked.size());
+        for (Ranked<T> result : ranked) {
+            list.add(result.data);
+        }
+        return list;
+    }
+
+    private static double rank(byte[] matchInfo) {
+        // matchinfo consists of 32-bit integers in the byte order of the device
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phrases = buffer.getInt(0);
+        int columns = buffer.getInt(4);
+        double rank = 0;
+        for (int i = 0; i < phrases * columns; i++) {
+            int hits = buffer.getInt(8 + i * 12);
+            int allHits = buffer.getInt(8 + i * 12 + 4);
+            if (hits > 0) {
+                rank += (double) hits / allHits;
+            }
+        }
+        return rank;
+    }
+
+    private static final class Ranked<T> {
+        private final T data;
+
+        private final double rank;
+
+        Ranked(T data, double rank) {
+            this.data = data;
+            this.rank = rank;
+        }
+    }
+}
\ No newline at end of file
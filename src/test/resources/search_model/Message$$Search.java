@@ -0,0 +1,52 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.support.ConnectionSource;
+import java.lang.String;
+import java.sql.SQLException;
+import java.util.List;
+
+public final class Message$$Search {
+    public static final String TABLE_NAME = "messages_fts";
+
+    private static final String[] CREATE_STATEMENTS = {
+        "CREATE VIRTUAL TABLE IF NOT EXISTS `messages_fts` USING fts4(content='messages', `subject`, `message_body`)",
+        "CREATE TRIGGER IF NOT EXISTS `messages_fts_bu` BEFORE UPDATE ON `messages` BEGIN DELETE FROM `messages_fts` WHERE docid = old.rowid; END",
+        "CREATE TRIGGER IF NOT EXISTS `messages_fts_bd` BEFORE DELETE ON `messages` BEGIN DELETE FROM `messages_fts` WHERE docid = old.rowid; END",
+        "CREATE TRIGGER IF NOT EXISTS `messages_fts_au` AFTER UPDATE ON `messages` BEGIN INSERT INTO `messages_fts` (docid, `subject`, `message_body`) VALUES (new.rowid, new.`subject`, new.`message_body`); END",
+        "CREATE TRIGGER IF NOT EXISTS `messages_fts_ai` AFTER INSERT ON `messages` BEGIN INSERT INTO `messages_fts` (docid, `subject`, `message_body`) VALUES (new.rowid, new.`subject`, new.`message_body`); END"
+    };
+
+    private static final String[] DROP_STATEMENTS = {
+        "DROP TRIGGER IF EXISTS `messages_fts_bu`",
+        "DROP TRIGGER IF EXISTS `messages_fts_bd`",
+        "DROP TRIGGER IF EXISTS `messages_fts_au`",
+        "DROP TRIGGER IF EXISTS `messages_fts_ai`",
+        "DROP TABLE IF EXISTS `messages_fts`"
+    };
+
+    private static final String EXISTS_QUERY = "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = 'messages_fts'";
+
+    private static final String REBUILD_STATEMENT = "INSERT INTO `messages_fts` (`messages_fts`) VALUES ('rebuild')";
+
+    private static final String SEARCH_QUERY = "SELECT `messages`.*, matchinfo(`messages_fts`, 'pcx') FROM `messages` JOIN `messages_fts` ON `messages_fts`.docid = `messages`.rowid WHERE `messages_fts` MATCH ?";
+
+    private Message$$Search() {
+    }
+
+    public static void createTable(ConnectionSource connectionSource) throws SQLException {
+        FullTextSearch.createTable(connectionSource, EXISTS_QUERY, CREATE_STATEMENTS, REBUILD_STATEMENT);
+    }
+
+    public static void rebuild(ConnectionSource connectionSource) throws SQLException {
+        FullTextSearch.execute(connectionSource, REBUILD_STATEMENT);
+    }
+
+    public static void dropTable(ConnectionSource connectionSource) throws SQLException {
+        FullTextSearch.execute(connectionSource, DROP_STATEMENTS);
+    }
+
+    public static List<Message> search(Dao<Message, ?> dao, String match) throws SQLException {
+        return FullTextSearch.search(dao, SEARCH_QUERY, match, true);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable(tableName = "messages")
+public class Message {
+    @DatabaseField(generatedId = true)
+    private long id;
+
+    @DatabaseField
+    @Searchable
+    private String subject;
+
+    @DatabaseField(columnName = "message_body")
+    @Searchable
+    private String body;
+
+    @DatabaseField
+    private long sent;
+}
@@ -0,0 +1,50 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.support.ConnectionSource;
+import java.lang.String;
+import java.sql.SQLException;
+import java.util.List;
+
+public final class Note$$Search {
+    public static final String TABLE_NAME = "notes_fts";
+
+    private static final String[] CREATE_STATEMENTS = {
+        "CREATE VIRTUAL TABLE IF NOT EXISTS `notes_fts` USING fts5(`text`, content='notes')",
+        "CREATE TRIGGER IF NOT EXISTS `notes_fts_ai` AFTER INSERT ON `notes` BEGIN INSERT INTO `notes_fts` (rowid, `text`) VALUES (new.rowid, new.`text`); END",
+        "CREATE TRIGGER IF NOT EXISTS `notes_fts_ad` AFTER DELETE ON `notes` BEGIN INSERT INTO `notes_fts` (`notes_fts`, rowid, `text`) VALUES ('delete', old.rowid, old.`text`); END",
+        "CREATE TRIGGER IF NOT EXISTS `notes_fts_au` AFTER UPDATE ON `notes` BEGIN INSERT INTO `notes_fts` (`notes_fts`, rowid, `text`) VALUES ('delete', old.rowid, old.`text`); INSERT INTO `notes_fts` (rowid, `text`) VALUES (new.rowid, new.`text`); END"
+    };
+
+    private static final String[] DROP_STATEMENTS = {
+        "DROP TRIGGER IF EXISTS `notes_fts_ai`",
+        "DROP TRIGGER IF EXISTS `notes_fts_ad`",
+        "DROP TRIGGER IF EXISTS `notes_fts_au`",
+        "DROP TABLE IF EXISTS `notes_fts`"
+    };
+
+    private static final String EXISTS_QUERY = "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = 'notes_fts'";
+
+    private static final String REBUILD_STATEMENT = "INSERT INTO `notes_fts` (`notes_fts`) VALUES ('rebuild')";
+
+    private static final String SEARCH_QUERY = "SELECT `notes`.* FROM `notes` JOIN `notes_fts` ON `notes_fts`.rowid = `notes`.rowid WHERE `notes_fts` MATCH ? ORDER BY `notes_fts`.rank";
+
+    private Note$$Search() {
+    }
+
+    public static void createTable(ConnectionSource connectionSource) throws SQLException {
+        FullTextSearch.createTable(connectionSource, EXISTS_QUERY, CREATE_STATEMENTS, REBUILD_STATEMENT);
+    }
+
+    public static void rebuild(ConnectionSource connectionSource) throws SQLException {
+        FullTextSearch.execute(connectionSource, REBUILD_STATEMENT);
+    }
+
+    public static void dropTable(ConnectionSource connectionSource) throws SQLException {
+        FullTextSearch.execute(connectionSource, DROP_STATEMENTS);
+    }
+
+    public static List<Note> search(Dao<Note, ?> dao, String match) throws SQLException {
+        return FullTextSearch.search(dao, SEARCH_QUERY, match, false);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable(tableName = "notes")
+public class Note {
+    @DatabaseField(generatedId = true)
+    private long id;
+
+    @DatabaseField
+    @Searchable(module = Searchable.Module.FTS5)
+    private String text;
+}
@@ -1,14 +1,197 @@
 package com.koenv.ormlite.processor;
 
+import com.j256.ormlite.dao.BaseDaoImpl;
 import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.field.SqlType;
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.logger.LoggerFactory;
+import com.j256.ormlite.misc.TransactionManager;
+import com.j256.ormlite.stmt.StatementBuilder;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseResults;
 import com.j256.ormlite.table.DatabaseTableConfig;
+import java.lang.Class;
+import java.lang.Object;
+import java.lang.Override;
+import java.lang.Runnable;
+import java.lang.RuntimeException;
+import java.lang.String;
+import java.lang.Void;
+import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class OrmLiteProcessor {
-    public static void init() {
-        Collection<DatabaseTableConfig<?>> configs = new ArrayList<DatabaseTableConfig<?>>();
+    public static final long SCHEMA_HASH = -7447594377451712421L;
+
+    private static final int[] TABLE_LEVELS = {0};
+
+    private static final Logger logger = LoggerFactory.getLogger(OrmLiteProcessor.class);
+
+    public static List<DatabaseTableConfig<?>> getTableConfigs() {
+        List<DatabaseTableConfig<?>> configs = new ArrayList<DatabaseTableConfig<?>>();
         configs.add(SimpleModel$$Configuration.getTableConfig());
-        DaoManager.addCachedDatabaseConfigs(configs);
+        return configs;
+    }
+
+    public static void init() {
+        DaoManager.addCachedDatabaseConfigs(getTableConfigs());
+    }
+
+    private static List<DatabaseTableConfig<?>> getTableConfigs(ConnectionSource connectionSource) {
+        List<DatabaseTableConfig<?>> configs = getTableConfigs();
+        if (connectionSource.getDatabaseType().isEntityNamesMustBeUpCase()) {
+            for (DatabaseTableConfig<?> config : configs) {
+                config.setTableName(config.getTableName().toUpperCase());
+            }
+        }
+        return configs;
+    }
+
+    public static void init(ConnectionSource connectionSource) {
+        DaoManager.addCachedDatabaseConfigs(getTableConfigs(connectionSource));
+    }
+
+    private static boolean isSchemaHashStored(DatabaseConnection connection, String name, long hash) throws SQLException {
+        CompiledStatement statement = connection.compileStatement("SELECT COUNT(*) FROM ormlite_schema WHERE name = ? AND hash = ?", StatementBuilder.StatementType.SELECT_LONG, new FieldType[0], DatabaseConnection.DEFAULT_RESULT_FLAGS);
+        try {
+            statement.setObject(0, name, SqlType.STRING);
+            statement.setObject(1, hash, SqlType.LONG);
+            DatabaseResults results = statement.runQuery(null);
+            return results.first() && results.getLong(0) > 0;
+        } finally {
+            statement.close();
+        }
+    }
+
+    private static void storeSchemaHash(DatabaseConnection connection, String name, long hash) throws SQLException {
+        CompiledStatement statement = connection.compileStatement("INSERT INTO ormlite_schema (name, hash) VALUES (?, ?)", StatementBuilder.StatementType.UPDATE, new FieldType[0], DatabaseConnection.DEFAULT_RESULT_FLAGS);
+        try {
+            statement.setObject(0, name, SqlType.STRING);
+            statement.setObject(1, hash, SqlType.LONG);
+            statement.runUpdate();
+        } finally {
+            statement.close();
+        }
+    }
+
+    public static boolean isSchemaCurrent(ConnectionSource connectionSource) throws SQLException {
+        DatabaseConnection connection = connectionSource.getReadOnlyConnection();
+        try {
+            return connection.isTableExists("ormlite_schema") && isSchemaHashStored(connection, "*", SCHEMA_HASH);
+        } finally {
+            connectionSource.releaseConnection(connection);
+        }
+    }
+
+    public static List<Class<?>> getChangedTables(ConnectionSource connectionSource) throws SQLException {
+        List<Class<?>> changed = new ArrayList<Class<?>>();
+        DatabaseConnection connection = connectionSource.getReadOnlyConnection();
+        try {
+            boolean exists = connection.isTableExists("ormlite_schema");
+            if (!exists || !isSchemaHashStored(connection, "simplemodel", SimpleModel$$Configuration.SCHEMA_HASH)) {
+                changed.add(SimpleModel.class);
+            }
+        } finally {
+            connectionSource.releaseConnection(connection);
+        }
+        return changed;
+    }
+
+    public static void markSchemaCurrent(ConnectionSource connectionSource) throws SQLException {
+        final DatabaseConnection connection = connectionSource.getReadWriteConnection();
+        try {
+            // replace the hashes in one transaction, a partial set would mark every table as changed
+            TransactionManager.callInTransaction(connection, connectionSource.getDatabaseType(), new Callable<Void>() {
+                @Override
+                public Void call() throws SQLException {
+                    connection.executeStatement("CREATE TABLE IF NOT EXISTS ormlite_schema (name VARCHAR(255) PRIMARY KEY, hash BIGINT NOT NULL)", DatabaseConnection.DEFAULT_RESULT_FLAGS);
+                    connection.executeStatement("DELETE FROM ormlite_schema", DatabaseConnection.DEFAULT_RESULT_FLAGS);
+                    storeSchemaHash(connection, "*", SCHEMA_HASH);
+                    storeSchemaHash(connection, "simplemodel", SimpleModel$$Configuration.SCHEMA_HASH);
+                    return null;
+                }
+            });
+        } finally {
+            connectionSource.releaseConnection(connection);
+        }
+    }
+
+    private static <T> void createDao(ConnectionSource connectionSource, DatabaseTableConfig<T> config) throws SQLException {
+        if (DaoManager.lookupDao(connectionSource, config.getDataClass()) != null) {
+            return;
+        }
+        // the DaoManager is locked while it creates a DAO, so create it here and only register it
+        BaseDaoImpl<T, Object> dao = new BaseDaoImpl<T, Object>(connectionSource, config) {
+        };
+        DaoManager.registerDao(connectionSource, dao);
+    }
+
+    private static void warmUpLevel(final ConnectionSource connectionSource, final Executor executor, final List<List<DatabaseTableConfig<?>>> levels, final int level, final CountDownLatch latch) {
+        if (level == levels.size()) {
+            return;
+        }
+        List<DatabaseTableConfig<?>> configs = levels.get(level);
+        final AtomicInteger remaining = new AtomicInteger(configs.size());
+        for (int i = 0; i < configs.size(); i++) {
+            final DatabaseTableConfig<?> config = configs.get(i);
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            createDao(connectionSource, config);
+                        } catch (SQLException e) {
+                            logger.warn(e, "Could not warm up the DAO of {}, it is created again on first use", config.getDataClass());
+                        } finally {
+                            latch.countDown();
+                            if (remaining.decrementAndGet() == 0) {
+                                warmUpLevel(connectionSource, executor, levels, level + 1, latch);
+                            }
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                logger.warn(e, "Could not warm up the DAOs of {} tables of level {}", configs.size() - i, level);
+                // the tables which were not scheduled are done, so the latch still reaches zero
+                for (int j = i; j < configs.size(); j++) {
+                    latch.countDown();
+                }
+                if (remaining.addAndGet(i - configs.size()) == 0) {
+                    warmUpLevel(connectionSource, executor, levels, level + 1, latch);
+                }
+                return;
+            }
+        }
+    }
+
+    public static CountDownLatch warmUp(ConnectionSource connectionSource, Executor executor, Class<?>... tables) {
+        List<Class<?>> selected = Arrays.asList(tables);
+        List<DatabaseTableConfig<?>> configs = getTableConfigs(connectionSource);
+        List<List<DatabaseTableConfig<?>>> levels = new ArrayList<List<DatabaseTableConfig<?>>>();
+        int count = 0;
+        for (int i = 0; i < configs.size(); i++) {
+            if (tables.length == 0 || selected.contains(configs.get(i).getDataClass())) {
+                while (levels.size() <= TABLE_LEVELS[i]) {
+                    levels.add(new ArrayList<DatabaseTableConfig<?>>());
+                }
+                levels.get(TABLE_LEVELS[i]).add(configs.get(i));
+                count++;
+            }
+        }
+        // a level without tables would never start the next one
+        levels.removeAll(Collections.singleton(Collections.emptyList()));
+        CountDownLatch latch = new CountDownLatch(count);
+        warmUpLevel(connectionSource, executor, levels, 0, latch);
+        return latch;
     }
 }
\ No newline at end of file
@@ -4,11 +4,12 @@ import com.j256.ormlite.field.DataType;
 import com.j256.ormlite.field.DatabaseFieldConfig;
 import com.j256.ormlite.field.types.BooleanType;
 import com.j256.ormlite.table.DatabaseTableConfig;
-
 import java.util.ArrayList;
 import java.util.List;
 
 public final class SimpleModel$$Configuration {
+    public static final long SCHEMA_HASH = -7426715856615090975L;
+
     public static List<DatabaseFieldConfig> getFieldConfigs() {
         List<DatabaseFieldConfig> list = new ArrayList<DatabaseFieldConfig>();
         DatabaseFieldConfig config = null;
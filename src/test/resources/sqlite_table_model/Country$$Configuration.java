@@ -0,0 +1,53 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DatabaseFieldConfig;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.table.DatabaseTableConfig;
+import com.j256.ormlite.table.TableUtils;
+import java.lang.String;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class Country$$Configuration {
+    public static final long SCHEMA_HASH = -8291953491483529686L;
+
+    public static List<DatabaseFieldConfig> getFieldConfigs() {
+        List<DatabaseFieldConfig> list = new ArrayList<DatabaseFieldConfig>();
+        DatabaseFieldConfig config = null;
+        config = new DatabaseFieldConfig();
+        config.setFieldName("code");
+        config.setId(true);
+        list.add(config);
+        config = new DatabaseFieldConfig();
+        config.setFieldName("name");
+        config.setIndex(true);
+        config.setIndexName("countries_name_idx");
+        list.add(config);
+        return list;
+    }
+
+    public static DatabaseTableConfig<Country> getTableConfig() {
+        DatabaseTableConfig<Country> config = new DatabaseTableConfig<Country>();
+        config.setDataClass(Country.class);
+        config.setTableName("countries");
+        config.setFieldConfigs(getFieldConfigs());
+        return config;
+    }
+
+    public static void createTable(ConnectionSource connectionSource) throws SQLException {
+        List<String> statements = TableUtils.getCreateTableStatements(connectionSource, getTableConfig());
+        DatabaseConnection connection = connectionSource.getReadWriteConnection();
+        try {
+            for (String statement : statements) {
+                if (statement.startsWith("CREATE TABLE ")) {
+                    statement += " WITHOUT ROWID";
+                }
+                connection.executeStatement(statement, DatabaseConnection.DEFAULT_RESULT_FLAGS);
+            }
+        } finally {
+            connectionSource.releaseConnection(connection);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable(tableName = "countries")
+@SqliteTable(withoutRowId = true)
+public class Country {
+    @DatabaseField(id = true)
+    private String code;
+
+    @DatabaseField(index = true)
+    private String name;
+}
@@ -0,0 +1,32 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DatabaseFieldConfig;
+import com.j256.ormlite.table.DatabaseTableConfig;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class Event$$Configuration {
+    public static final long SCHEMA_HASH = 900684800535698408L;
+
+    public static List<DatabaseFieldConfig> getFieldConfigs() {
+        List<DatabaseFieldConfig> list = new ArrayList<DatabaseFieldConfig>();
+        DatabaseFieldConfig config = null;
+        config = new DatabaseFieldConfig();
+        config.setFieldName("id");
+        config.setGeneratedId(true);
+        config.setColumnDefinition("INTEGER PRIMARY KEY");
+        list.add(config);
+        config = new DatabaseFieldConfig();
+        config.setFieldName("name");
+        list.add(config);
+        return list;
+    }
+
+    public static DatabaseTableConfig<Event> getTableConfig() {
+        DatabaseTableConfig<Event> config = new DatabaseTableConfig<Event>();
+        config.setDataClass(Event.class);
+        config.setTableName("events");
+        config.setFieldConfigs(getFieldConfigs());
+        return config;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.koenv.ormlite.processor;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable(tableName = "events")
+@SqliteTable(rowIdAlias = true)
+public class Event {
+    @DatabaseField(generatedId = true)
+    private long id;
+
+    @DatabaseField
+    private String name;
+}